@@ -0,0 +1,41 @@
+package com.example.nodeapp;
+
+import org.threeten.bp.ZoneId;
+import org.threeten.bp.ZonedDateTime;
+import org.threeten.bp.format.DateTimeFormatter;
+
+import java.util.List;
+
+// Computes the display fields of a Fixture once, off the UI thread, so
+// MatchAdapter only assigns strings while scrolling.
+public class FixtureDisplay {
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+    private static final String UNKNOWN_TIME = "--:--";
+
+    public static void prepareAll(List<Fixture> fixtures) {
+        ZoneId localZone = ZoneId.systemDefault(); // detects phone's timezone automatically
+        for (Fixture f : fixtures)
+            prepare(f, localZone);
+    }
+
+    public static void prepare(Fixture f, ZoneId localZone) {
+        f.kickoffMillis = 0;
+        f.timeText = UNKNOWN_TIME;
+        if (f.matchTime != null) {
+            try {
+                ZonedDateTime utcDateTime = ZonedDateTime.parse(f.matchTime); // parses UTC ISO 8601
+                f.kickoffMillis = utcDateTime.toInstant().toEpochMilli();
+                f.timeText = utcDateTime.withZoneSameInstant(localZone).format(TIME_FORMAT);
+            } catch (Exception e) {
+                // leave placeholder time
+            }
+        }
+        prepareScoreAndStatus(f);
+    }
+
+    // Enough for live patches, which never change the kickoff time
+    public static void prepareScoreAndStatus(Fixture f) {
+        f.scoreText = f.homeScore + " - " + f.awayScore;
+        f.statusLabel = f.status != null ? f.status : "";
+    }
+}
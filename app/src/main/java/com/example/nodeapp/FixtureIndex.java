@@ -0,0 +1,128 @@
+package com.example.nodeapp;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+// Search structure built once per fixture snapshot (off the main thread): a
+// token -> rows map over normalized team names for prefix lookups and a bitset
+// per status category. Queries are bitset unions/intersections, so they stay
+// well under a millisecond. Results keep the repository's (API page) order so
+// rows appended by pagination always land below the ones already on screen.
+public class FixtureIndex {
+
+    public enum Category {
+        ALL, LIVE, UPCOMING, FINISHED
+    }
+
+    private static final Set<String> FINISHED_STATUSES = new HashSet<>(Arrays.asList(
+            "ft", "aet", "pen", "finished", "ended", "full time", "fulltime", "match finished", "canc",
+            "cancelled", "canceled", "match cancelled", "pst", "postponed", "match postponed", "abd", "abandoned",
+            "match abandoned", "awd", "wo"));
+    private static final Set<String> UPCOMING_STATUSES = new HashSet<>(Arrays.asList(
+            "", "ns", "tbd", "not started", "scheduled", "upcoming", "time to be defined"));
+    // A match whose status we don't recognise only counts as live this long after kickoff
+    public static final long LIVE_WINDOW_MS = 3 * 60 * 60_000L;
+
+    private final List<Fixture> fixtures;
+    // normalized token -> rows (positions in fixtures) containing it
+    private final TreeMap<String, BitSet> tokens = new TreeMap<>();
+    private final Map<Category, BitSet> categories = new HashMap<>();
+
+    public static FixtureIndex build(List<Fixture> fixtures) {
+        return new FixtureIndex(fixtures);
+    }
+
+    private FixtureIndex(List<Fixture> fixtures) {
+        List<Fixture> list = Collections.unmodifiableList(new ArrayList<>(fixtures));
+        this.fixtures = list;
+
+        for (Category c : Category.values())
+            categories.put(c, new BitSet(list.size()));
+        long now = System.currentTimeMillis();
+        for (int row = 0; row < list.size(); row++) {
+            Fixture f = list.get(row);
+            addTokens(f.homeName, row);
+            addTokens(f.awayName, row);
+            categories.get(Category.ALL).set(row);
+            categories.get(categorize(f, now)).set(row);
+        }
+    }
+
+    // Status strings are display labels straight from the API. Anything that is
+    // neither a known "not started" nor a known "over" label (e.g. "45'",
+    // "Half Time") is treated as in play, but only between kickoff and
+    // LIVE_WINDOW_MS after it; outside that window the kickoff time decides.
+    public static Category categorize(Fixture f, long now) {
+        String status = f.status == null ? "" : f.status.trim().toLowerCase(Locale.ROOT);
+        if (FINISHED_STATUSES.contains(status))
+            return Category.FINISHED;
+        if (UPCOMING_STATUSES.contains(status))
+            return Category.UPCOMING;
+        if (f.kickoffMillis == 0 || now < f.kickoffMillis)
+            return Category.UPCOMING;
+        if (now - f.kickoffMillis > LIVE_WINDOW_MS)
+            return Category.FINISHED;
+        return Category.LIVE;
+    }
+
+    public int size() {
+        return fixtures.size();
+    }
+
+    // Every word of the query must prefix-match a word of either team name.
+    public List<Fixture> query(String text, Category category) {
+        BitSet rows = (BitSet) categories.get(category).clone();
+        for (String prefix : tokenize(text)) {
+            BitSet matches = new BitSet(fixtures.size());
+            SortedMap<String, BitSet> range = tokens.subMap(prefix, prefix + Character.MAX_VALUE);
+            for (BitSet b : range.values())
+                matches.or(b);
+            rows.and(matches);
+            if (rows.isEmpty())
+                break;
+        }
+        if (rows.cardinality() == fixtures.size())
+            return fixtures;
+        List<Fixture> result = new ArrayList<>(rows.cardinality());
+        for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1))
+            result.add(fixtures.get(row));
+        return Collections.unmodifiableList(result);
+    }
+
+    private void addTokens(String name, int row) {
+        for (String token : tokenize(name)) {
+            BitSet rows = tokens.get(token);
+            if (rows == null) {
+                rows = new BitSet();
+                tokens.put(token, rows);
+            }
+            rows.set(row);
+        }
+    }
+
+    // Lowercase, strip accents (so "Atletico" matches the accented spelling), split on non-alphanumerics
+    static List<String> tokenize(String text) {
+        List<String> out = new ArrayList<>();
+        if (text == null || text.isEmpty())
+            return out;
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT);
+        for (String token : normalized.split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty())
+                out.add(token);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.nodeapp;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// Streams the fixtures array straight into Fixture objects without building a
+// DOM. Unused fields are skipped; a bad record is reported and dropped while
+// the rest of the list still parses.
+public class FixtureParser {
+
+    public static class Result {
+        public final List<Fixture> fixtures = new ArrayList<>();
+        public final List<String> errors = new ArrayList<>();
+    }
+
+    private static class Team {
+        String name, logo;
+        int goals;
+    }
+
+    public static Result parse(Reader in) throws IOException {
+        Result result = new Result();
+        JsonReader reader = new JsonReader(in);
+        reader.beginArray();
+        int index = 0;
+        while (reader.hasNext()) {
+            List<String> problems = new ArrayList<>();
+            Fixture fixture = readFixture(reader, problems);
+            if (problems.isEmpty()) {
+                result.fixtures.add(fixture);
+            } else {
+                result.errors.add("fixture #" + index + (fixture.id != 0 ? " (id " + fixture.id + ")" : "") + ": "
+                        + String.join(", ", problems));
+            }
+            index++;
+        }
+        reader.endArray();
+        return result;
+    }
+
+    private static Fixture readFixture(JsonReader reader, List<String> problems) throws IOException {
+        Fixture m = new Fixture();
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            problems.add("not an object");
+            return m;
+        }
+        boolean hasId = false;
+        int teamCount = 0;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    Integer id = readInt(reader);
+                    if (id != null) {
+                        m.id = id;
+                        hasId = true;
+                    }
+                    break;
+                case "match_url":
+                    m.matchUrl = readString(reader);
+                    break;
+                case "match_status_display":
+                    m.status = readString(reader);
+                    break;
+                case "match_time":
+                    m.matchTime = readString(reader);
+                    break;
+                case "match_teams":
+                    if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+                        reader.skipValue();
+                        break;
+                    }
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        Team team = readTeam(reader);
+                        if (teamCount == 0) {
+                            m.homeName = team.name;
+                            m.homeLogo = team.logo;
+                            m.homeScore = team.goals;
+                        } else if (teamCount == 1) {
+                            m.awayName = team.name;
+                            m.awayLogo = team.logo;
+                            m.awayScore = team.goals;
+                        }
+                        teamCount++;
+                    }
+                    reader.endArray();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (!hasId)
+            problems.add("missing id");
+        if (teamCount < 2)
+            problems.add("expected 2 teams, got " + teamCount);
+        if (m.matchTime == null)
+            problems.add("missing match_time");
+        return m;
+    }
+
+    private static Team readTeam(JsonReader reader) throws IOException {
+        Team team = new Team();
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return team;
+        }
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "goals":
+                    Integer goals = readInt(reader);
+                    team.goals = goals != null ? goals : 0; // null before kickoff
+                    break;
+                case "team":
+                    if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                        reader.skipValue();
+                        break;
+                    }
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        switch (reader.nextName()) {
+                            case "name":
+                                team.name = readString(reader);
+                                break;
+                            case "logo":
+                                team.logo = readString(reader);
+                                break;
+                            default:
+                                reader.skipValue();
+                        }
+                    }
+                    reader.endObject();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return team;
+    }
+
+    // Tolerant readers: anything of the wrong shape is skipped so the stream
+    // stays in sync and only this record is affected.
+    private static String readString(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.STRING || token == JsonToken.NUMBER)
+            return reader.nextString();
+        if (token == JsonToken.BOOLEAN)
+            return String.valueOf(reader.nextBoolean());
+        reader.skipValue();
+        return null;
+    }
+
+    private static Integer readInt(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.NUMBER || token == JsonToken.STRING) {
+            try {
+                return reader.nextInt();
+            } catch (NumberFormatException e) {
+                reader.skipValue(); // value is still pending after a failed nextInt
+                return null;
+            }
+        }
+        reader.skipValue();
+        return null;
+    }
+}
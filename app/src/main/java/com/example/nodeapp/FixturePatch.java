@@ -0,0 +1,65 @@
+package com.example.nodeapp;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Compact live update for one fixture, pushed over the node websocket.
+// Absent fields (null) are left unchanged.
+public class FixturePatch {
+    public int id;
+    public Integer homeScore, awayScore;
+    public String status;
+
+    // Parses one patch from a gateway message map; returns null without an id
+    public static FixturePatch fromMap(Map<String, Object> map) {
+        Object id = map.get("id");
+        if (!(id instanceof Number))
+            return null;
+        FixturePatch p = new FixturePatch();
+        p.id = ((Number) id).intValue();
+        if (map.get("home_score") instanceof Number)
+            p.homeScore = ((Number) map.get("home_score")).intValue();
+        if (map.get("away_score") instanceof Number)
+            p.awayScore = ((Number) map.get("away_score")).intValue();
+        if (map.get("status") instanceof String)
+            p.status = (String) map.get("status");
+        return p;
+    }
+
+    // Returns a new list with patched rows replaced by updated copies, or the
+    // same list instance if no row actually changed. Fixtures are never
+    // mutated in place because MatchAdapter diffs against them.
+    public static List<Fixture> apply(List<Fixture> fixtures, List<FixturePatch> patches) {
+        Map<Integer, FixturePatch> byId = new HashMap<>();
+        for (FixturePatch p : patches)
+            byId.put(p.id, p);
+
+        List<Fixture> result = null;
+        for (int i = 0; i < fixtures.size(); i++) {
+            Fixture f = fixtures.get(i);
+            FixturePatch p = byId.get(f.id);
+            if (p == null || !p.changes(f))
+                continue;
+            if (result == null)
+                result = new ArrayList<>(fixtures);
+            Fixture updated = f.copy();
+            if (p.homeScore != null)
+                updated.homeScore = p.homeScore;
+            if (p.awayScore != null)
+                updated.awayScore = p.awayScore;
+            if (p.status != null)
+                updated.status = p.status;
+            FixtureDisplay.prepareScoreAndStatus(updated);
+            result.set(i, updated);
+        }
+        return result != null ? result : fixtures;
+    }
+
+    private boolean changes(Fixture f) {
+        return (homeScore != null && homeScore != f.homeScore)
+                || (awayScore != null && awayScore != f.awayScore)
+                || (status != null && !status.equals(f.status));
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.nodeapp;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.List;
+
+// Background refresh while the fixture list is on screen, paced by the data:
+// every minute while a match is live or about to kick off, hourly otherwise
+// (waking up in time for the next kickoff). Live score pushes stretch the live
+// interval since the list is then mostly kept fresh by patches.
+//
+// Coalescing: ticks go through FixtureRepository.refreshInBackground(), so
+// they join any refresh already running (and keep the pages the user scrolled
+// to), and the next tick is timed from the last refresh the server answered,
+// whoever started it. Main thread only.
+public class FixtureRefreshScheduler {
+    private static final long LIVE_INTERVAL_MS = 60_000;
+    private static final long IDLE_INTERVAL_MS = 60 * 60_000;
+    // live but patches are arriving: poll only as a safety net
+    private static final long PUSH_BACKOFF_INTERVAL_MS = 5 * 60_000;
+    private static final long PUSH_FRESH_MS = 3 * 60_000;
+    // kickoff this close counts as live
+    private static final long IMMINENT_MS = 15 * 60_000;
+    // "not started" this long after kickoff: the status is lagging, keep polling
+    private static final long OVERDUE_MS = FixtureIndex.LIVE_WINDOW_MS;
+
+    private final FixtureRepository repository;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable tick = this::tick;
+    private boolean running = false;
+    private long lastTickMillis = 0;
+    private long lastPushMillis = 0;
+
+    public FixtureRefreshScheduler(FixtureRepository repository) {
+        this.repository = repository;
+    }
+
+    // While the list is visible. A tick that became due in the background runs now.
+    public void start() {
+        running = true;
+        reschedule();
+    }
+
+    // Nothing is polled while the app is in the background
+    public void stop() {
+        running = false;
+        handler.removeCallbacks(tick);
+    }
+
+    // New fixtures may move the next kickoff or change what is live
+    public void onFixturesChanged() {
+        if (running)
+            reschedule();
+    }
+
+    public void onPushReceived() {
+        lastPushMillis = System.currentTimeMillis();
+    }
+
+    private void tick() {
+        if (!running)
+            return;
+        long now = System.currentTimeMillis();
+        if (nextRefreshAt(now) <= now) {
+            lastTickMillis = now;
+            repository.refreshInBackground();
+        }
+        reschedule();
+    }
+
+    private void reschedule() {
+        handler.removeCallbacks(tick);
+        long now = System.currentTimeMillis();
+        handler.postDelayed(tick, Math.max(0, nextRefreshAt(now) - now));
+    }
+
+    private long nextRefreshAt(long now) {
+        long lastRefresh = Math.max(repository.getLastRefreshMillis(), lastTickMillis);
+        boolean active = false;
+        long nextKickoff = Long.MAX_VALUE;
+        List<Fixture> fixtures = repository.getFixtures();
+        for (Fixture f : fixtures) {
+            FixtureIndex.Category category = FixtureIndex.categorize(f, now);
+            if (category == FixtureIndex.Category.LIVE) {
+                active = true;
+                break;
+            }
+            if (category != FixtureIndex.Category.UPCOMING || f.kickoffMillis == 0)
+                continue;
+            if (f.kickoffMillis <= now + IMMINENT_MS && f.kickoffMillis >= now - OVERDUE_MS) {
+                active = true;
+                break;
+            }
+            if (f.kickoffMillis > now)
+                nextKickoff = Math.min(nextKickoff, f.kickoffMillis);
+        }
+
+        if (active) {
+            boolean pushActive = now - lastPushMillis < PUSH_FRESH_MS;
+            return lastRefresh + (pushActive ? PUSH_BACKOFF_INTERVAL_MS : LIVE_INTERVAL_MS);
+        }
+        long due = lastRefresh + IDLE_INTERVAL_MS;
+        if (nextKickoff != Long.MAX_VALUE)
+            due = Math.min(due, nextKickoff - IMMINENT_MS);
+        return due;
+    }
+}
@@ -0,0 +1,438 @@
+package com.example.nodeapp;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSink;
+import okio.Okio;
+
+// Owns fixture loading: the last good response is kept on disk so startup can
+// render it immediately, then it is revalidated with ETag / If-Modified-Since.
+// A 304 means the snapshot is still current and nothing is parsed.
+//
+// The API is read in pages: page 1 is the cached/revalidated snapshot, later
+// pages are loaded on demand as the list scrolls (see loadNextPage). A
+// user refresh starts paging over; a background refresh merges the new page 1
+// into the loaded list so later pages (and their live patches) stay put.
+//
+// One instance per process (get()), so a recreated activity re-attaches to
+// the loaded list and any refresh in flight instead of starting over.
+//
+// Threading: at most one refresh and one page load are in flight; callers of
+// refresh() while one is running join it. Every change produces a new
+// unmodifiable list which is handed to the registered listeners on the main
+// thread, in the order the changes happened. Results of superseded calls are
+// dropped.
+public class FixtureRepository {
+    private static final String TAG = "FixtureRepository";
+    private static final String PREFS = "fixture_cache";
+    private static final String KEY_ETAG = "etag";
+    private static final String KEY_LAST_MODIFIED = "last_modified";
+    private static final int PAGE_SIZE = 50;
+    // a refresh running longer than this is cancelled and restarted by the next caller
+    private static final long STALE_REFRESH_MS = 15_000;
+
+    public interface Listener {
+        // fromCache = true when the list came from the on-disk snapshot
+        void onFixtures(List<Fixture> fixtures, boolean fromCache);
+
+        void onNotModified();
+
+        void onError(Exception e);
+    }
+
+    private static final Consumer<Listener> NOT_MODIFIED = Listener::onNotModified;
+
+    private static FixtureRepository instance;
+
+    private final Context appContext;
+    private final String apiUrl;
+    private final OkHttpClient client;
+    private final File snapshotFile;
+    private final SharedPreferences prefs;
+    private final ExecutorService diskExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // checked again when each delivery runs, so a removed listener gets nothing more
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    // All below guarded by this
+    private List<Fixture> fixtures = Collections.emptyList();
+    // bumped whenever page 1 is replaced, so page loads for an older list are discarded
+    private int generation = 0;
+    // once the network answered, a late snapshot read must not replace it
+    private boolean networkDelivered = false;
+    private Call refreshCall;
+    private long refreshStartedAt;
+    // wall clock of the last refresh the server answered (new data or 304)
+    private long lastRefreshMillis = 0;
+    private boolean snapshotRequested = false;
+    // false while only background callers wait on the running refresh
+    private boolean refreshResetsPaging = false;
+    private Call pageCall;
+    private int nextPage = 2;
+    private boolean endReached = false;
+
+    public static synchronized FixtureRepository get(Context context, String apiUrl) {
+        if (instance == null)
+            instance = new FixtureRepository(context.getApplicationContext(), apiUrl);
+        return instance;
+    }
+
+    private FixtureRepository(Context context, String apiUrl) {
+        this.appContext = context.getApplicationContext();
+        this.apiUrl = apiUrl;
+        this.client = HttpClients.get(context);
+        this.snapshotFile = new File(context.getFilesDir(), "fixtures.json");
+        this.prefs = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+    }
+
+    // Main thread. A listener that attaches after fixtures were loaded gets the
+    // current list right away.
+    public void addListener(Listener listener) {
+        synchronized (this) {
+            listeners.add(listener);
+            if (fixtures.isEmpty())
+                return;
+            List<Fixture> list = fixtures;
+            boolean fromCache = !networkDelivered;
+            mainHandler.post(() -> {
+                if (listeners.contains(listener))
+                    listener.onFixtures(list, fromCache);
+            });
+        }
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    // Reads the last good snapshot from disk, once per process. Delivers
+    // onFixtures(.., true) only if there is one and the network hasn't
+    // answered first.
+    public void loadSnapshot() {
+        synchronized (this) {
+            if (snapshotRequested)
+                return;
+            snapshotRequested = true;
+        }
+        diskExecutor.execute(() -> {
+            if (!snapshotFile.exists())
+                return;
+            try {
+                List<Fixture> page = parseFile(snapshotFile);
+                synchronized (this) {
+                    if (networkDelivered)
+                        return;
+                    List<Fixture> list = replaceFirstPage(page);
+                    deliver(l -> l.onFixtures(list, true));
+                }
+            } catch (Exception e) {
+                Log.w(TAG, "Discarding unreadable snapshot: " + e);
+                snapshotFile.delete();
+                clearValidators();
+            }
+        });
+    }
+
+    // Conditional GET of page 1. If a refresh is already running this joins it
+    // instead of starting another request. New data replaces the list and
+    // paging starts again from page 2.
+    public void refresh() {
+        startRefresh(true);
+    }
+
+    // Same request, but new data only updates the rows of page 1 in place;
+    // pages loaded after it are kept. Used by periodic refreshes.
+    public void refreshInBackground() {
+        startRefresh(false);
+    }
+
+    private void startRefresh(boolean resetPaging) {
+        Call call;
+        synchronized (this) {
+            if (refreshCall == null)
+                refreshResetsPaging = resetPaging;
+            else
+                refreshResetsPaging |= resetPaging; // a user refresh joining a background one wins
+            if (refreshCall != null) {
+                if (System.currentTimeMillis() - refreshStartedAt < STALE_REFRESH_MS)
+                    return;
+                refreshCall.cancel(); // stuck; start over
+            }
+            call = client.newCall(buildRefreshRequest());
+            refreshCall = call;
+            refreshStartedAt = System.currentTimeMillis();
+        }
+
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                finishRefresh(call, l -> l.onError(e), null);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (ResponseBody body = response.body()) {
+                    if (response.code() == 304) {
+                        finishRefresh(call, NOT_MODIFIED, null);
+                        return;
+                    }
+                    if (!response.isSuccessful() || body == null)
+                        throw new IOException("HTTP " + response.code());
+
+                    // Land the body on disk first; only a parseable response replaces the snapshot
+                    File tmp = new File(snapshotFile.getPath() + ".tmp");
+                    try (BufferedSink sink = Okio.buffer(Okio.sink(tmp))) {
+                        sink.writeAll(body.source());
+                    }
+                    List<Fixture> page;
+                    try {
+                        page = parseFile(tmp);
+                    } catch (Exception e) {
+                        tmp.delete();
+                        throw e;
+                    }
+                    if (call.isCanceled()) {
+                        tmp.delete();
+                        return;
+                    }
+                    if (tmp.renameTo(snapshotFile)) {
+                        saveValidators(response.header("ETag"), response.header("Last-Modified"));
+                    } else {
+                        // the old snapshot is still on disk; new validators would make it look current
+                        tmp.delete();
+                        clearValidators();
+                    }
+                    finishRefresh(call, null, page);
+                } catch (Exception e) {
+                    finishRefresh(call, l -> l.onError(e), null);
+                }
+            }
+        });
+    }
+
+    // Completes the refresh if it is still the current one: installs the new
+    // page (if any) and notifies the listeners.
+    private void finishRefresh(Call call, Consumer<Listener> action, List<Fixture> page) {
+        synchronized (this) {
+            if (refreshCall != call)
+                return; // superseded or cancelled
+            refreshCall = null;
+            if (page != null || action == NOT_MODIFIED)
+                lastRefreshMillis = System.currentTimeMillis();
+            if (page != null) {
+                networkDelivered = true;
+                List<Fixture> list = refreshResetsPaging ? replaceFirstPage(page) : mergeFirstPage(page);
+                deliver(l -> l.onFixtures(list, false));
+            } else {
+                deliver(action);
+            }
+        }
+    }
+
+    // Fetches the page after the ones we have; called when the list is scrolled
+    // close to its end. Delivers the merged list. No-op while a page is loading
+    // or once the API ran out of fixtures.
+    public void loadNextPage() {
+        Call call;
+        int page, gen;
+        synchronized (this) {
+            if (pageCall != null || endReached)
+                return;
+            page = nextPage;
+            gen = generation;
+            call = client.newCall(new Request.Builder().url(pageUrl(page)).build());
+            pageCall = call;
+        }
+
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                synchronized (FixtureRepository.this) {
+                    if (pageCall != call)
+                        return;
+                    pageCall = null;
+                    deliver(l -> l.onError(e));
+                }
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                List<Fixture> parsed = null;
+                Exception error = null;
+                try (ResponseBody body = response.body()) {
+                    if (!response.isSuccessful() || body == null)
+                        throw new IOException("HTTP " + response.code());
+                    parsed = parse(body.charStream());
+                } catch (Exception e) {
+                    error = e;
+                }
+                synchronized (FixtureRepository.this) {
+                    if (pageCall != call)
+                        return;
+                    pageCall = null;
+                    if (gen != generation)
+                        return; // page 1 changed underneath us; numbering may have shifted
+                    if (parsed == null) {
+                        Exception e = error;
+                        deliver(l -> l.onError(e));
+                        return;
+                    }
+                    nextPage = page + 1;
+                    List<Fixture> list = appendPage(parsed);
+                    deliver(l -> l.onFixtures(list, false));
+                }
+            }
+        });
+    }
+
+    // Applies live patches to the current list; delivers only if a row changed.
+    public void applyPatches(List<FixturePatch> patches) {
+        synchronized (this) {
+            List<Fixture> patched = FixturePatch.apply(fixtures, patches);
+            if (patched == fixtures)
+                return;
+            fixtures = Collections.unmodifiableList(patched);
+            List<Fixture> list = fixtures;
+            deliver(l -> l.onFixtures(list, false));
+        }
+    }
+
+    public synchronized List<Fixture> getFixtures() {
+        return fixtures;
+    }
+
+    public synchronized long getLastRefreshMillis() {
+        return lastRefreshMillis;
+    }
+
+    // Called while holding the lock, which keeps deliveries in the same order
+    // as the state changes that produced them.
+    private void deliver(Consumer<Listener> action) {
+        mainHandler.post(() -> {
+            for (Listener l : listeners)
+                action.accept(l);
+        });
+    }
+
+    private Request buildRefreshRequest() {
+        Request.Builder builder = new Request.Builder().url(pageUrl(1));
+        if (snapshotFile.exists()) {
+            String etag = prefs.getString(KEY_ETAG, null);
+            String lastModified = prefs.getString(KEY_LAST_MODIFIED, null);
+            if (etag != null)
+                builder.header("If-None-Match", etag);
+            if (lastModified != null)
+                builder.header("If-Modified-Since", lastModified);
+        }
+        return builder.build();
+    }
+
+    private List<Fixture> replaceFirstPage(List<Fixture> page) {
+        fixtures = Collections.unmodifiableList(new ArrayList<>(page));
+        generation++;
+        if (pageCall != null) {
+            pageCall.cancel();
+            pageCall = null;
+        }
+        nextPage = 2;
+        // a short page is the last one; an oversized one means the API ignored paging
+        endReached = page.size() != PAGE_SIZE;
+        return fixtures;
+    }
+
+    // Rows of the new page 1 replace (or precede) the loaded ones with the
+    // same id; everything else keeps its place and paging continues as before.
+    private List<Fixture> mergeFirstPage(List<Fixture> page) {
+        if (nextPage == 2)
+            return replaceFirstPage(page); // nothing beyond page 1 loaded yet
+        Set<Integer> fresh = new HashSet<>();
+        for (Fixture f : page)
+            fresh.add(f.id);
+        List<Fixture> merged = new ArrayList<>(page);
+        for (Fixture f : fixtures) {
+            if (!fresh.contains(f.id))
+                merged.add(f);
+        }
+        fixtures = Collections.unmodifiableList(merged);
+        return fixtures;
+    }
+
+    // Servers that ignore the page parameter return the same rows again, so
+    // a page that adds nothing new also ends paging.
+    private List<Fixture> appendPage(List<Fixture> page) {
+        Set<Integer> known = new HashSet<>();
+        for (Fixture f : fixtures)
+            known.add(f.id);
+        List<Fixture> merged = new ArrayList<>(fixtures);
+        for (Fixture f : page) {
+            if (known.add(f.id))
+                merged.add(f);
+        }
+        if (page.size() < PAGE_SIZE || merged.size() == fixtures.size())
+            endReached = true;
+        fixtures = Collections.unmodifiableList(merged);
+        return fixtures;
+    }
+
+    private HttpUrl pageUrl(int page) {
+        return HttpUrl.get(apiUrl).newBuilder()
+                .setQueryParameter("page", String.valueOf(page))
+                .setQueryParameter("page_size", String.valueOf(PAGE_SIZE))
+                .build();
+    }
+
+    private List<Fixture> parseFile(File file) throws IOException {
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            return parse(reader);
+        }
+    }
+
+    // Parse and precompute display fields, always on a background thread
+    private List<Fixture> parse(Reader reader) throws IOException {
+        FixtureParser.Result result = FixtureParser.parse(reader);
+        for (String error : result.errors) {
+            Log.w(TAG, "Skipped " + error);
+        }
+        TimeZoneData.ensureInitialized(appContext); // first parse loads the tz rules, off the main thread
+        FixtureDisplay.prepareAll(result.fixtures);
+        return result.fixtures;
+    }
+
+    private void saveValidators(String etag, String lastModified) {
+        prefs.edit()
+                .putString(KEY_ETAG, etag)
+                .putString(KEY_LAST_MODIFIED, lastModified)
+                .apply();
+    }
+
+    private void clearValidators() {
+        prefs.edit().clear().apply();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.nodeapp;
+
+import android.content.Context;
+
+import java.io.File;
+
+import okhttp3.Cache;
+import okhttp3.OkHttpClient;
+
+// App-wide OkHttp client for the UI side (fixtures, updates). Sharing one
+// instance shares its connection pool, dispatcher and disk cache.
+public class HttpClients {
+    private static final long DISK_CACHE_BYTES = 10L * 1024 * 1024;
+
+    private static OkHttpClient client;
+
+    public static synchronized OkHttpClient get(Context context) {
+        if (client == null) {
+            File cacheDir = new File(context.getApplicationContext().getCacheDir(), "http");
+            client = new OkHttpClient.Builder()
+                    .cache(new Cache(cacheDir, DISK_CACHE_BYTES))
+                    .build();
+        }
+        return client;
+    }
+}
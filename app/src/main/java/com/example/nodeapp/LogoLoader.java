@@ -0,0 +1,70 @@
+package com.example.nodeapp;
+
+import android.content.Context;
+import android.widget.ImageView;
+
+import com.squareup.picasso.LruCache;
+import com.squareup.picasso.OkHttp3Downloader;
+import com.squareup.picasso.Picasso;
+import com.squareup.picasso.RequestCreator;
+
+import java.io.File;
+
+// Team logos: decoded once at the on-screen size and shared through a memory
+// cache keyed by URL (+ size), backed by a disk cache so they survive restarts.
+// The same club appears in many rows, so most binds are memory hits.
+public class LogoLoader {
+    private static final long DISK_CACHE_BYTES = 20L * 1024 * 1024;
+    private static final int MAX_MEMORY_CACHE_BYTES = 8 * 1024 * 1024;
+
+    private static LogoLoader instance;
+
+    private final Picasso picasso;
+    private final int sizePx;
+
+    public static synchronized LogoLoader get(Context context) {
+        if (instance == null)
+            instance = new LogoLoader(context.getApplicationContext());
+        return instance;
+    }
+
+    private LogoLoader(Context context) {
+        int memoryBytes = (int) Math.min(MAX_MEMORY_CACHE_BYTES, Runtime.getRuntime().maxMemory() / 16);
+        picasso = new Picasso.Builder(context)
+                .memoryCache(new LruCache(memoryBytes))
+                .downloader(new OkHttp3Downloader(new File(context.getCacheDir(), "logos"), DISK_CACHE_BYTES))
+                .build();
+        sizePx = context.getResources().getDimensionPixelSize(R.dimen.team_logo_size);
+    }
+
+    public void load(String url, ImageView target) {
+        if (url == null || url.isEmpty()) {
+            picasso.cancelRequest(target);
+            target.setImageResource(R.drawable.ic_launcher);
+            return;
+        }
+        request(url)
+                .placeholder(R.drawable.ic_launcher)
+                .error(R.drawable.ic_launcher)
+                .into(target);
+    }
+
+    // Decode into the memory cache ahead of time (same key as load()). fetch()
+    // is a no-op for logos still in memory, so evicted ones are warmed again.
+    public void prefetch(String url) {
+        if (url == null || url.isEmpty())
+            return;
+        request(url).fetch();
+    }
+
+    public void cancel(ImageView target) {
+        picasso.cancelRequest(target);
+    }
+
+    private RequestCreator request(String url) {
+        return picasso.load(url)
+                .resize(sizePx, sizePx)
+                .centerInside()
+                .onlyScaleDown();
+    }
+}
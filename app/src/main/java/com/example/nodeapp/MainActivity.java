@@ -19,83 +19,81 @@ import android.net.Uri;
 import android.provider.Settings;
 import android.graphics.Color;
 import android.graphics.Rect;
+import android.view.ViewTreeObserver;
 import android.view.Window;
+import android.util.Log;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.widget.CheckBox;
+import android.widget.EditText;
 
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
+import androidx.core.content.FileProvider;
+import androidx.lifecycle.Lifecycle;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 import androidx.appcompat.app.AlertDialog;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
 
-import com.jakewharton.threetenabp.AndroidThreeTen;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import java.io.File;
 import java.util.UUID;
 import java.util.Map;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.net.URL;
-import java.net.HttpURLConnection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
-import okhttp3.Call;
-import okhttp3.Callback;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.Response;
 
 public class MainActivity extends AppCompatActivity {
 
+    private static final String TAG = "MainActivity";
+
     private TextView outputView;
     private NodeClient nodeClient;
     private RecyclerView recyclerView;
     private FrameLayout overlay;
     private MatchAdapter matchAdapter;
-    private List<Fixture> matchList = new ArrayList<>();
-    private OkHttpClient client = new OkHttpClient();
+    private FixtureRepository fixtureRepository;
+    private FixtureRefreshScheduler refreshScheduler;
+    private SwipeRefreshLayout swipeRefreshLayout;
+
+    // Search: index rebuilt per snapshot and queried off the main thread
+    private static final long SEARCH_DEBOUNCE_MS = 150;
+    private final ExecutorService searchExecutor = Executors.newSingleThreadExecutor();
+    private final Handler uiHandler = new Handler(Looper.getMainLooper());
+    private volatile FixtureIndex fixtureIndex;
+    private String searchText = "";
+    private FixtureIndex.Category searchCategory = FixtureIndex.Category.ALL;
+    private int searchGeneration = 0;
+    private final Runnable searchTask = this::runSearch;
     private static final int REQ_CODE_POST_NOTIFICATIONS = 1001;
+    // Start loading the next page when this many rows are left below the viewport
+    private static final int PAGE_PREFETCH_DISTANCE = 15;
+    // Rows below the viewport whose logos are decoded ahead of time
+    private static final int LOGO_PREFETCH_ROWS = 8;
+    // Staged startup: only the fixture list is on the critical path
+    private static final long UPDATE_CHECK_DELAY_MS = 5_000;
+    private boolean deferredStartupDone = false;
+    private boolean fullyDrawnReported = false;
 
     private static final String API_URL = "https://api.gogoaltv.com/api/fixtures?api_key=eTE6NzFhNjYyYmJlNzM5Nzk0YjM5Yjc1NjBiNGZiOTNjNDY6MjAyNS0wNy0zMVQxOToyNjoyNC44OTgzMTA=";
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        StartupTrace.mark("activity_create");
         super.onCreate(savedInstanceState);
-        AndroidThreeTen.init(this);
+        StartupTrace.begin("activity_inflate");
         setContentView(R.layout.activity_main);
-
-        
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
-            if (ContextCompat.checkSelfPermission(this,
-            Manifest.permission.POST_NOTIFICATIONS) != PackageManager.PERMISSION_GRANTED) {
-                ActivityCompat.requestPermissions(this,
-                        new String[] { Manifest.permission.POST_NOTIFICATIONS },
-                        REQ_CODE_POST_NOTIFICATIONS);
-            }
-        }
-        
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.UPSIDE_DOWN_CAKE) { // Android 14
-            // Foreground service types must be correct
-            if (!ActivityCompat.shouldShowRequestPermissionRationale(this, Manifest.permission.FOREGROUND_SERVICE)) {
-                ActivityCompat.requestPermissions(this, new String[] { Manifest.permission.FOREGROUND_SERVICE }, 0);
-            }
-        }
-        
-        requestBatteryOptimizationExemption();
-        
-        Intent serviceIntent = new Intent(this, NodeService.class);
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-            startForegroundService(serviceIntent);
-        } else {
-            startService(serviceIntent);
-        }
+        StartupTrace.end("activity_inflate");
 
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
             Window window = getWindow();
@@ -115,7 +113,19 @@ public class MainActivity extends AppCompatActivity {
 
         overlay.setVisibility(View.VISIBLE);
 
-        recyclerView.setLayoutManager(new LinearLayoutManager(this));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        recyclerView.setLayoutManager(layoutManager);
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                if (dy <= 0)
+                    return;
+                int lastVisible = layoutManager.findLastVisibleItemPosition();
+                matchAdapter.prefetchLogos(lastVisible + 1, LOGO_PREFETCH_ROWS);
+                if (lastVisible >= matchAdapter.getItemCount() - PAGE_PREFETCH_DISTANCE)
+                    fixtureRepository.loadNextPage();
+            }
+        });
         recyclerView.addItemDecoration(new RecyclerView.ItemDecoration() {
             @Override
             public void getItemOffsets(@NonNull Rect outRect, @NonNull View view,
@@ -124,23 +134,115 @@ public class MainActivity extends AppCompatActivity {
             }
         });
 
-        matchAdapter = new MatchAdapter(matchList, match -> {
+        matchAdapter = new MatchAdapter(this, match -> {
             String url = "https://gogoaltv.com/stream/" + match.matchUrl + "?_id="+String.valueOf(match.id);
             Intent browserIntent = new Intent(Intent.ACTION_VIEW, Uri.parse(url));
             startActivity(browserIntent);
         });
         recyclerView.setAdapter(matchAdapter);
 
-        fetchMatches();
-        checkForUpdate();
+        EditText searchInput = findViewById(R.id.searchInput);
+        searchInput.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                searchText = s.toString();
+                uiHandler.removeCallbacks(searchTask);
+                uiHandler.postDelayed(searchTask, SEARCH_DEBOUNCE_MS);
+            }
+        });
+        CheckBox liveOnly = findViewById(R.id.liveOnly);
+        liveOnly.setOnCheckedChangeListener((button, checked) -> {
+            searchCategory = checked ? FixtureIndex.Category.LIVE : FixtureIndex.Category.ALL;
+            runSearch();
+        });
 
-        SwipeRefreshLayout swipeRefreshLayout = findViewById(R.id.swipeRefresh);
+        swipeRefreshLayout = findViewById(R.id.swipeRefresh);
         swipeRefreshLayout.setOnRefreshListener(() -> {
-            fetchMatches(); // Your existing method to reload data
-            swipeRefreshLayout.setRefreshing(false);
+            fetchMatches(); // joins the running refresh if there is one; spinner stops when it completes
+        });
+
+        // Show the last known fixtures straight from disk, then revalidate
+        fixtureRepository = FixtureRepository.get(this, API_URL);
+        fixtureRepository.addListener(fixtureListener);
+        fixtureRepository.loadSnapshot();
+        if (fixtureRepository.getLastRefreshMillis() == 0)
+            fetchMatches(); // joins a refresh still running from before a rotation
+        else
+            overlay.setVisibility(View.GONE); // recreated: the list is current, the scheduler keeps it so
+        // Keeps the list fresh while visible, faster while matches are live (started in onStart)
+        refreshScheduler = new FixtureRefreshScheduler(fixtureRepository);
+
+        // Permissions, the node service and the update check wait for the first frame
+        runAfterFirstFrame(this::onFirstFrame);
+        StartupTrace.mark("activity_create_done");
+    }
+
+    private void runAfterFirstFrame(Runnable action) {
+        View decor = getWindow().getDecorView();
+        decor.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                decor.getViewTreeObserver().removeOnPreDrawListener(this);
+                uiHandler.post(action); // runs once this frame has been drawn
+                return true;
+            }
         });
     }
 
+    private void onFirstFrame() {
+        StartupTrace.mark("first_frame");
+        if (isFinishing() || isDestroyed())
+            return;
+        StartupTrace.begin("deferred_startup");
+        requestStartupPermissions();
+        requestBatteryOptimizationExemption();
+        startNodeService();
+        deferredStartupDone = true;
+        if (getLifecycle().getCurrentState().isAtLeast(Lifecycle.State.STARTED))
+            sendFixtureSubscription(NodeService.ACTION_SUBSCRIBE_FIXTURES);
+        StartupTrace.end("deferred_startup");
+
+        // Least urgent of all; leave the network to the fixture refresh first
+        uiHandler.postDelayed(this::checkForUpdate, UPDATE_CHECK_DELAY_MS);
+        if (BuildConfig.DEBUG)
+            StartupTrace.log();
+    }
+
+    private void requestStartupPermissions() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
+            if (ContextCompat.checkSelfPermission(this,
+            Manifest.permission.POST_NOTIFICATIONS) != PackageManager.PERMISSION_GRANTED) {
+                ActivityCompat.requestPermissions(this,
+                        new String[] { Manifest.permission.POST_NOTIFICATIONS },
+                        REQ_CODE_POST_NOTIFICATIONS);
+            }
+        }
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.UPSIDE_DOWN_CAKE) { // Android 14
+            // Foreground service types must be correct
+            if (!ActivityCompat.shouldShowRequestPermissionRationale(this, Manifest.permission.FOREGROUND_SERVICE)) {
+                ActivityCompat.requestPermissions(this, new String[] { Manifest.permission.FOREGROUND_SERVICE }, 0);
+            }
+        }
+    }
+
+    private void startNodeService() {
+        Intent serviceIntent = new Intent(this, NodeService.class);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            startForegroundService(serviceIntent);
+        } else {
+            startService(serviceIntent);
+        }
+    }
+
     private BroadcastReceiver logReceiver = new BroadcastReceiver() {
         @Override
         public void onReceive(Context context, Intent intent) {
@@ -149,6 +251,71 @@ public class MainActivity extends AppCompatActivity {
         }
     };
 
+    // Live score patches relayed by NodeService from the gateway websocket
+    private BroadcastReceiver fixturePatchReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            int[] ids = intent.getIntArrayExtra("ids");
+            int[] homeScores = intent.getIntArrayExtra("home_scores");
+            int[] awayScores = intent.getIntArrayExtra("away_scores");
+            String[] statuses = intent.getStringArrayExtra("statuses");
+            if (ids == null || homeScores == null || awayScores == null || statuses == null)
+                return;
+
+            List<FixturePatch> patches = new ArrayList<>();
+            for (int i = 0; i < ids.length; i++) {
+                FixturePatch p = new FixturePatch();
+                p.id = ids[i];
+                p.homeScore = homeScores[i] >= 0 ? homeScores[i] : null;
+                p.awayScore = awayScores[i] >= 0 ? awayScores[i] : null;
+                p.status = statuses[i];
+                patches.add(p);
+            }
+            refreshScheduler.onPushReceived();
+            fixtureRepository.applyPatches(patches);
+        }
+    };
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        LocalBroadcastManager.getInstance(this).registerReceiver(fixturePatchReceiver,
+                new IntentFilter(NodeService.BROADCAST_FIXTURE_PATCHES));
+        // before the first frame the service isn't started yet; onFirstFrame subscribes then
+        if (deferredStartupDone)
+            sendFixtureSubscription(NodeService.ACTION_SUBSCRIBE_FIXTURES);
+        refreshScheduler.start();
+    }
+
+    @Override
+    protected void onStop() {
+        refreshScheduler.stop();
+        LocalBroadcastManager.getInstance(this).unregisterReceiver(fixturePatchReceiver);
+        if (deferredStartupDone)
+            sendFixtureSubscription(NodeService.ACTION_UNSUBSCRIBE_FIXTURES);
+        super.onStop();
+    }
+
+    private void sendFixtureSubscription(String action) {
+        Intent intent = new Intent(this, NodeService.class);
+        intent.setAction(action);
+        try {
+            startService(intent);
+        } catch (IllegalStateException e) {
+            // service not startable from here right now; the next onStart retries
+            Log.w(TAG, "Could not update fixture subscription: " + e);
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        if (fixtureRepository != null)
+            fixtureRepository.removeListener(fixtureListener);
+        uiHandler.removeCallbacksAndMessages(null);
+        searchExecutor.shutdownNow();
+        super.onDestroy();
+    }
+
     @Override
     protected void onResume() {
         super.onResume();
@@ -173,94 +340,119 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
-    private void fetchMatches() {
-        overlay.setVisibility(View.VISIBLE);
+    private final FixtureRepository.Listener fixtureListener = new FixtureRepository.Listener() {
+        @Override
+        // Called on the main thread with an immutable snapshot
+        public void onFixtures(List<Fixture> fixtures, boolean fromCache) {
+            searchExecutor.execute(() -> fixtureIndex = FixtureIndex.build(fixtures));
+            runSearch();
+            refreshScheduler.onFixturesChanged();
+            if (!fixtures.isEmpty() || !fromCache) {
+                overlay.setVisibility(View.GONE);
+                swipeRefreshLayout.setRefreshing(false);
+            }
+            if (!fixtures.isEmpty() && !fullyDrawnReported) {
+                fullyDrawnReported = true;
+                StartupTrace.mark(fromCache ? "fixtures_shown_cached" : "fixtures_shown");
+                reportFullyDrawn();
+                if (BuildConfig.DEBUG)
+                    StartupTrace.log();
+            }
+        }
 
-        Request request = new Request.Builder()
-                .url(API_URL)
-                .build();
+        @Override
+        public void onNotModified() {
+            overlay.setVisibility(View.GONE);
+            swipeRefreshLayout.setRefreshing(false);
+        }
 
-        client.newCall(request).enqueue(new Callback() {
-            @Override
-            public void onFailure(Call call, IOException e) {
-                runOnUiThread(() -> overlay.setVisibility(View.GONE));
-            }
+        @Override
+        public void onError(Exception e) {
+            Log.w(TAG, "Fixture refresh failed: " + e);
+            overlay.setVisibility(View.GONE);
+            swipeRefreshLayout.setRefreshing(false);
+        }
+    };
 
-            @Override
-            public void onResponse(Call call, Response response) throws IOException {
-                if (!response.isSuccessful()) {
-                    runOnUiThread(() -> overlay.setVisibility(View.GONE));
-                    return;
-                }
-
-                String responseBody = response.body().string();
-                try {
-                    JSONArray jsonArray = new JSONArray(responseBody);
-                    matchList.clear();
-                    for (int i = 0; i < jsonArray.length(); i++) {
-                        JSONObject obj = jsonArray.getJSONObject(i);
-                        Fixture match = Fixture.fromJson(obj);
-                        matchList.add(match);
-                    }
-                    runOnUiThread(() -> {
-                        matchAdapter.notifyDataSetChanged();
-                        overlay.setVisibility(View.GONE);
-                    });
-                } catch (Exception e) {
-                    runOnUiThread(() -> overlay.setVisibility(View.GONE));
-                }
-            }
+    // Queries the latest index with the current filter; stale results (the
+    // input or the snapshot changed meanwhile) are dropped.
+    private void runSearch() {
+        uiHandler.removeCallbacks(searchTask);
+        int generation = ++searchGeneration;
+        String text = searchText;
+        FixtureIndex.Category category = searchCategory;
+        // A filter must see every fixture, not only the pages scrolled to so
+        // far: keep paging in the background while one is active. Each page
+        // comes back through onFixtures and lands here again; loadNextPage()
+        // is a no-op while a page is in flight or once the API ran out.
+        if (!FixtureIndex.tokenize(text).isEmpty() || category != FixtureIndex.Category.ALL)
+            fixtureRepository.loadNextPage();
+        searchExecutor.execute(() -> {
+            FixtureIndex index = fixtureIndex;
+            if (index == null)
+                return;
+            List<Fixture> result = index.query(text, category);
+            uiHandler.post(() -> {
+                if (generation == searchGeneration)
+                    matchAdapter.submitList(result);
+            });
         });
     }
 
-    private void checkForUpdate() {
-        String updateUrl = "https://api.gogoaltv.com/release/update"; // example
+    private void fetchMatches() {
+        // Only block the screen when there is nothing to show yet
+        if (fixtureRepository.getFixtures().isEmpty())
+            overlay.setVisibility(View.VISIBLE);
+        fixtureRepository.refresh();
+    }
 
-        new Thread(() -> {
+    private void checkForUpdate() {
+        UpdateDownloader.get(this).checkForUpdate(info -> {
+            if (isFinishing() || isDestroyed())
+                return;
             try {
-                URL url = new URL(updateUrl);
-                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-                conn.setRequestMethod("GET");
-                conn.connect();
-
-                if (conn.getResponseCode() == 200) {
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(conn.getInputStream()));
-                    StringBuilder json = new StringBuilder();
-                    String line;
-                    while ((line = reader.readLine()) != null) {
-                        json.append(line);
-                    }
-                    reader.close();
-
-                    JSONObject obj = new JSONObject(json.toString());
-                    String latestVersion = obj.getString("version");
-                    String downloadLink = obj.getString("blobUrl");
-
-                    String currentVersion = BuildConfig.VERSION_NAME;
-
-                    if (isUpdateAvailable(currentVersion, latestVersion)) {
-                        runOnUiThread(() -> showUpdateDialog(downloadLink));
-                    }
-                }
-            } catch (Exception e) {
-                e.printStackTrace();
+                if (isUpdateAvailable(BuildConfig.VERSION_NAME, info.version))
+                    showUpdateDialog(info);
+            } catch (NumberFormatException e) {
+                Log.w(TAG, "Unparseable update version: " + info.version);
             }
-        }).start();
+        });
     }
 
-    private void showUpdateDialog(String downloadLink) {
+    private void showUpdateDialog(UpdateDownloader.UpdateInfo info) {
         new AlertDialog.Builder(this)
                 .setTitle("Update Available")
                 .setMessage(
                         "A newer version of GoGoalTv is available. Please update to continue enjoying the latest features.")
-                .setPositiveButton("Update", (dialog, which) -> {
-                    Intent browserIntent = new Intent(Intent.ACTION_VIEW, Uri.parse(downloadLink));
-                    startActivity(browserIntent);
-                })
+                .setPositiveButton("Update", (dialog, which) -> downloadUpdate(info))
                 .setNegativeButton("Later", null)
                 .show();
     }
 
+    // Downloads in the background (resuming any earlier partial download) and
+    // opens the installer once the APK is verified. Falls back to the browser.
+    private void downloadUpdate(UpdateDownloader.UpdateInfo info) {
+        Context appContext = getApplicationContext();
+        UpdateDownloader.get(this).download(info, new UpdateDownloader.DownloadListener() {
+            @Override
+            public void onDownloaded(File apk) {
+                Uri uri = FileProvider.getUriForFile(appContext, appContext.getPackageName() + ".fileprovider", apk);
+                Intent install = new Intent(Intent.ACTION_VIEW);
+                install.setDataAndType(uri, "application/vnd.android.package-archive");
+                install.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION | Intent.FLAG_ACTIVITY_NEW_TASK);
+                appContext.startActivity(install);
+            }
+
+            @Override
+            public void onFailed(Exception e) {
+                Log.w(TAG, "Update download failed: " + e);
+                Intent browserIntent = new Intent(Intent.ACTION_VIEW, Uri.parse(info.url));
+                browserIntent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
+                appContext.startActivity(browserIntent);
+            }
+        });
+    }
+
     private boolean isUpdateAvailable(String currentVersion, String latestVersion) {
         String[] currentParts = currentVersion.split("\\.");
         String[] latestParts = latestVersion.split("\\.");
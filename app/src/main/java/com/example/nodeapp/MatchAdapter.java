@@ -8,15 +8,12 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.squareup.picasso.Picasso;
-
 import java.util.List;
-
-import org.threeten.bp.ZonedDateTime;
-import org.threeten.bp.format.DateTimeFormatter;
-import org.threeten.bp.ZoneId;
+import java.util.Objects;
 
 public class MatchAdapter extends RecyclerView.Adapter<MatchAdapter.MatchViewHolder> {
 
@@ -24,57 +21,142 @@ public class MatchAdapter extends RecyclerView.Adapter<MatchAdapter.MatchViewHol
         void onMatchClick(Fixture match);
     }
 
-    private List<Fixture> matches;
+    // Partial-bind payload bits: which parts of a row changed
+    private static final int CHANGE_SCORE = 1;
+    private static final int CHANGE_STATUS = 1 << 1;
+    private static final int CHANGE_TIME = 1 << 2;
+    private static final int CHANGE_TEAMS = 1 << 3;
+
+    private static final DiffUtil.ItemCallback<Fixture> DIFF_CALLBACK = new DiffUtil.ItemCallback<Fixture>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Fixture oldItem, @NonNull Fixture newItem) {
+            return oldItem.id == newItem.id;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Fixture oldItem, @NonNull Fixture newItem) {
+            return changes(oldItem, newItem) == 0;
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull Fixture oldItem, @NonNull Fixture newItem) {
+            return changes(oldItem, newItem);
+        }
+    };
+
+    private static int changes(Fixture a, Fixture b) {
+        int changed = 0;
+        if (a.homeScore != b.homeScore || a.awayScore != b.awayScore)
+            changed |= CHANGE_SCORE;
+        if (!Objects.equals(a.status, b.status))
+            changed |= CHANGE_STATUS;
+        if (!Objects.equals(a.matchTime, b.matchTime))
+            changed |= CHANGE_TIME;
+        if (!Objects.equals(a.homeName, b.homeName) || !Objects.equals(a.awayName, b.awayName)
+                || !Objects.equals(a.homeLogo, b.homeLogo) || !Objects.equals(a.awayLogo, b.awayLogo)
+                || !Objects.equals(a.matchUrl, b.matchUrl))
+            changed |= CHANGE_TEAMS;
+        return changed;
+    }
+
+    // Diffs run on a background thread; only changed rows are dispatched
+    private final AsyncListDiffer<Fixture> differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
     private OnMatchClickListener listener;
+    private final LogoLoader logoLoader;
 
-    public MatchAdapter(List<Fixture> matches, OnMatchClickListener listener) {
-        this.matches = matches;
+    public MatchAdapter(Context context, OnMatchClickListener listener) {
         this.listener = listener;
+        this.logoLoader = LogoLoader.get(context);
+        setHasStableIds(true);
+    }
+
+    // Fixtures handed in here must not be mutated afterwards; pass a new list
+    // (with new Fixture objects for changed rows) on every update.
+    public void submitList(List<Fixture> fixtures) {
+        differ.submitList(fixtures);
+    }
+
+    public List<Fixture> getCurrentList() {
+        return differ.getCurrentList();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return differ.getCurrentList().get(position).id;
     }
 
     @NonNull
     @Override
     public MatchViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View v = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_match, parent, false);
-        return new MatchViewHolder(v);
+        MatchViewHolder holder = new MatchViewHolder(v);
+        holder.itemView.setOnClickListener(view -> {
+            int position = holder.getBindingAdapterPosition();
+            if (position != RecyclerView.NO_POSITION)
+                listener.onMatchClick(differ.getCurrentList().get(position));
+        });
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull MatchViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        int changed = 0;
+        for (Object payload : payloads) {
+            if (payload instanceof Integer)
+                changed |= (Integer) payload;
+        }
+        Fixture match = differ.getCurrentList().get(position);
+        if ((changed & CHANGE_TEAMS) != 0) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        if ((changed & CHANGE_SCORE) != 0)
+            holder.score.setText(match.scoreText);
+        if ((changed & CHANGE_STATUS) != 0)
+            holder.matchStatus.setText(match.statusLabel);
+        if ((changed & CHANGE_TIME) != 0)
+            holder.matchTime.setText(match.timeText);
     }
 
     @Override
     public void onBindViewHolder(@NonNull MatchViewHolder holder, int position) {
-        Fixture match = matches.get(position);
+        Fixture match = differ.getCurrentList().get(position);
         holder.nameHome.setText(match.homeName);
         holder.nameAway.setText(match.awayName);
-        holder.score.setText(match.homeScore + " - " + match.awayScore);
-        holder.matchStatus.setText(match.status);
-        holder.matchTime.setText(convertToLocalTime(match.matchTime));
-
-        if (match.homeLogo != null && !match.homeLogo.isEmpty()) {
-            Picasso.get()
-                    .load(match.homeLogo)
-                    .placeholder(R.drawable.ic_launcher)
-                    .error(R.drawable.ic_launcher)
-                    .into(holder.logoHome);
-        } else {
-            holder.logoHome.setImageResource(R.drawable.ic_launcher);
-        }
+        holder.score.setText(match.scoreText);
+        holder.matchStatus.setText(match.statusLabel);
+        holder.matchTime.setText(match.timeText);
 
-        // Away logo
-        if (match.awayLogo != null && !match.awayLogo.isEmpty()) {
-            Picasso.get()
-                    .load(match.awayLogo)
-                    .placeholder(R.drawable.ic_launcher)
-                    .error(R.drawable.ic_launcher)
-                    .into(holder.logoAway);
-        } else {
-            holder.logoAway.setImageResource(R.drawable.ic_launcher);
-        }
+        logoLoader.load(match.homeLogo, holder.logoHome);
+        logoLoader.load(match.awayLogo, holder.logoAway);
+    }
+
+    // Recycled rows must not receive a late logo meant for their old fixture
+    @Override
+    public void onViewRecycled(@NonNull MatchViewHolder holder) {
+        logoLoader.cancel(holder.logoHome);
+        logoLoader.cancel(holder.logoAway);
+        super.onViewRecycled(holder);
+    }
 
-        holder.itemView.setOnClickListener(v -> listener.onMatchClick(match));
+    // Warms logos for rows just below the viewport so they bind from memory
+    public void prefetchLogos(int fromPosition, int count) {
+        List<Fixture> list = differ.getCurrentList();
+        int end = Math.min(list.size(), fromPosition + count);
+        for (int i = Math.max(0, fromPosition); i < end; i++) {
+            Fixture f = list.get(i);
+            logoLoader.prefetch(f.homeLogo);
+            logoLoader.prefetch(f.awayLogo);
+        }
     }
 
     @Override
     public int getItemCount() {
-        return matches.size();
+        return differ.getCurrentList().size();
     }
 
     static class MatchViewHolder extends RecyclerView.ViewHolder {
@@ -92,12 +174,4 @@ public class MatchAdapter extends RecyclerView.Adapter<MatchAdapter.MatchViewHol
             matchTime = itemView.findViewById(R.id.matchTime);
         }
     }
-
-    public String convertToLocalTime(String utcTime) {
-        ZonedDateTime utcDateTime = ZonedDateTime.parse(utcTime); // parses UTC ISO 8601
-        ZoneId localZone = ZoneId.systemDefault(); // detects phone's timezone automatically
-        ZonedDateTime localDateTime = utcDateTime.withZoneSameInstant(localZone);
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH:mm");
-        return localDateTime.format(formatter);
-    }
 }
@@ -13,9 +13,14 @@ import java.lang.reflect.Type;
 import java.net.Socket;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import okhttp3.Call;
 import okhttp3.Callback;
@@ -32,7 +37,6 @@ public class NodeClient {
     private static final String TAG = "NodeClient";
 
     private final String GATEWAY_URL;
-    private final String NODE_ID = UUID.randomUUID().toString();
     private final int MAX_RETRIES;
     private final int RETRY_DELAY_SECONDS;
     private final int PING_INTERVAL_SECONDS;
@@ -41,19 +45,58 @@ public class NodeClient {
     private final OkHttpClient wsClient;
     private final Gson gson = new Gson();
 
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
-    private final ExecutorService ioPool = Executors.newCachedThreadPool();
+    // Created by start(), so constructing a client costs no threads
+    private volatile ScheduledExecutorService scheduler;
+    private volatile ExecutorService ioPool;
 
     // tunnelId -> Socket (we keep the socket so we can write to it)
     private final ConcurrentHashMap<String, Socket> activeTunnels = new ConcurrentHashMap<>();
     // tunnelId -> Future (reader task) for cancellation
     private final ConcurrentHashMap<String, Future<?>> tunnelReaders = new ConcurrentHashMap<>();
 
+    // Everything we send to the gateway goes through here (priority + fair share + caps)
+    private final OutboundScheduler outbound;
+
     private volatile WebSocket webSocket;
     private volatile boolean stopped = false;
 
-    private static final long PING_INTERVAL_MS = 30000; // 30 seconds (adjust to your server timeout)
+    // Persisted identity / warm-start snapshot (null = ephemeral identity)
+    private final NodeStateStore stateStore;
+    // Read by start() on the scheduler thread (file IO), before the first connect
+    private volatile NodeStateStore.State warmState;
+    private volatile String nodeId;
+    private volatile long connectStartedNanos;
+
+    // Heartbeats are stretched by this factor while the node is idle
+    private static final int IDLE_PING_MULTIPLIER = 3;
     private ScheduledExecutorService pingScheduler;
+    private volatile boolean idleMode = false;
+
+    // http requests currently being proxied (tunnels are tracked in activeTunnels)
+    private final AtomicInteger inFlightRequests = new AtomicInteger();
+    private final AtomicBoolean busy = new AtomicBoolean(false);
+    private volatile TrafficListener trafficListener;
+
+    // Capabilities advertised on register; load is published at a bounded rate
+    private static final int DEFAULT_MAX_TUNNELS = 64;
+    private static final String[] FRAME_MODES = { "hex" };
+    private static final long LOAD_CHECK_INTERVAL_SECONDS = 5;
+    private static final long LOAD_REPORT_MAX_INTERVAL_MS = 60_000;
+    private volatile int maxTunnels = DEFAULT_MAX_TUNNELS;
+    private volatile DeviceStateProvider deviceStateProvider;
+    private volatile long rttMs = -1;
+    private volatile long lastPingSentNanos;
+    private long lastLoadReportMs;
+    private long lastLoadBytes;
+    private String lastLoadSignature;
+
+    // Live fixture updates pushed by the gateway while the UI is watching
+    private volatile boolean fixturesSubscribed = false;
+    private volatile FixtureUpdateListener fixtureUpdateListener;
+
+    // Optional warm sockets for hot tunnel destinations (null = disabled or not started)
+    private volatile boolean preconnectEnabled = false;
+    private volatile PreconnectPool preconnectPool;
 
     private final NodeClientCallback callback;
 
@@ -61,8 +104,27 @@ public class NodeClient {
         void onLog(String text);
     }
 
+    public interface TrafficListener {
+        void onTrafficStateChanged(boolean busy);
+    }
+
+    public interface FixtureUpdateListener {
+        void onFixturePatches(List<FixturePatch> patches);
+    }
+
+    // Battery / thermal / network hints from the hosting service
+    public interface DeviceStateProvider {
+        Map<String, Object> snapshot();
+    }
+
     public NodeClient(String gatewayUrl, int maxRetries, int retryDelaySeconds, int pingIntervalSeconds,
             NodeClientCallback callback) {
+        this(gatewayUrl, maxRetries, retryDelaySeconds, pingIntervalSeconds, null, callback);
+    }
+
+    public NodeClient(String gatewayUrl, int maxRetries, int retryDelaySeconds, int pingIntervalSeconds,
+            NodeStateStore stateStore, NodeClientCallback callback) {
+        this.stateStore = stateStore;
         this.GATEWAY_URL = gatewayUrl;
         this.MAX_RETRIES = maxRetries;
         this.RETRY_DELAY_SECONDS = retryDelaySeconds;
@@ -72,14 +134,129 @@ public class NodeClient {
         // One OkHttpClient for http calls and websockets (can share)
         this.httpClient = new OkHttpClient.Builder().build();
         this.wsClient = this.httpClient;
+
+        this.outbound = new OutboundScheduler(new OutboundScheduler.Sink() {
+            @Override
+            public boolean send(String text) {
+                WebSocket ws = webSocket;
+                if (ws == null)
+                    return false;
+                boolean ok = ws.send(text);
+                if (!ok) {
+                    log("Failed to send frame (" + text.length() + " chars)");
+                }
+                return ok;
+            }
+
+            @Override
+            public long queueSize() {
+                WebSocket ws = webSocket;
+                return ws == null ? -1 : ws.queueSize();
+            }
+        });
+    }
+
+    // Caps what this node pushes to the gateway, in bytes/sec. 0 = unlimited.
+    public void setBandwidthLimits(long globalBytesPerSecond, long perTunnelBytesPerSecond) {
+        outbound.setLimits(globalBytesPerSecond, perTunnelBytesPerSecond);
+    }
+
+    public Map<String, Object> getOutboundStats() {
+        return outbound.snapshotStats();
+    }
+
+    public void setMaxTunnels(int maxTunnels) {
+        this.maxTunnels = maxTunnels;
+    }
+
+    public void setDeviceStateProvider(DeviceStateProvider provider) {
+        this.deviceStateProvider = provider;
+    }
+
+    // The pool (and its maintenance thread) only exists while the client runs
+    public synchronized void setPreconnectEnabled(boolean enabled) {
+        preconnectEnabled = enabled;
+        if (enabled && preconnectPool == null && scheduler != null && !stopped) {
+            preconnectPool = new PreconnectPool();
+            preconnectPool.setPaused(idleMode);
+        } else if (!enabled && preconnectPool != null) {
+            preconnectPool.shutdown();
+            preconnectPool = null;
+        }
+    }
+
+    public Map<String, Object> getPreconnectStats() {
+        PreconnectPool pool = preconnectPool;
+        return pool != null ? pool.getStats() : Map.of();
+    }
+
+    public void setFixtureUpdateListener(FixtureUpdateListener listener) {
+        this.fixtureUpdateListener = listener;
+    }
+
+    // Subscription is re-sent after every reconnect while it is on
+    public void setFixturesSubscribed(boolean subscribed) {
+        if (fixturesSubscribed == subscribed)
+            return;
+        fixturesSubscribed = subscribed;
+        if (webSocket == null)
+            return; // not connected yet; onOpen subscribes
+        sendJson(Map.of("type", subscribed ? "fixtures-subscribe" : "fixtures-unsubscribe", "node_id", nodeId));
+    }
+
+    public void setTrafficListener(TrafficListener listener) {
+        this.trafficListener = listener;
+    }
+
+    // Idle mode stretches the heartbeat so the radio can sleep longer
+    public void setIdleMode(boolean idle) {
+        if (idleMode == idle)
+            return;
+        idleMode = idle;
+        PreconnectPool pool = preconnectPool;
+        if (pool != null)
+            pool.setPaused(idle); // no warm sockets while nothing is happening
+        log(idle ? "Entering idle mode" : "Leaving idle mode");
+    }
+
+    public boolean isBusy() {
+        return busy.get();
+    }
+
+    private synchronized void updateTrafficState() {
+        boolean nowBusy = !activeTunnels.isEmpty() || inFlightRequests.get() > 0;
+        if (busy.compareAndSet(!nowBusy, nowBusy)) {
+            TrafficListener l = trafficListener;
+            if (l != null)
+                l.onTrafficStateChanged(nowBusy);
+        }
     }
 
     public void start() {
         stopped = false;
-        scheduler.execute(this::connectWithRetries);
+        synchronized (this) {
+            if (scheduler == null || scheduler.isShutdown())
+                scheduler = Executors.newScheduledThreadPool(2);
+            if (ioPool == null || ioPool.isShutdown())
+                ioPool = Executors.newCachedThreadPool();
+        }
+        setPreconnectEnabled(preconnectEnabled);
+        outbound.start();
+        scheduler.execute(() -> {
+            loadState();
+            connectWithRetries();
+        });
         startPingLoop();
     }
 
+    private void loadState() {
+        if (nodeId != null)
+            return;
+        NodeStateStore.State state = stateStore != null ? stateStore.load() : null;
+        warmState = state;
+        nodeId = state != null ? state.nodeId : UUID.randomUUID().toString();
+    }
+
     public void stop() {
         stopped = true;
 
@@ -90,11 +267,21 @@ public class NodeClient {
         }
 
         // cancel pingers
-        scheduler.shutdownNow();
+        if (scheduler != null)
+            scheduler.shutdownNow();
 
         // cancel ping loop
         stopPingLoop();
 
+        outbound.stop();
+
+        synchronized (this) {
+            if (preconnectPool != null) {
+                preconnectPool.shutdown();
+                preconnectPool = null;
+            }
+        }
+
         // cancel reader tasks
         tunnelReaders.forEach((tid, future) -> future.cancel(true));
         tunnelReaders.clear();
@@ -109,7 +296,8 @@ public class NodeClient {
         activeTunnels.clear();
 
         try {
-            ioPool.shutdownNow();
+            if (ioPool != null)
+                ioPool.shutdownNow();
         } catch (Exception ignored) {
         }
     }
@@ -127,13 +315,14 @@ public class NodeClient {
             try {
                 log("Attempting websocket connect (attempt " + (retries + 1) + ")");
                 Request request = new Request.Builder().url(GATEWAY_URL).build();
+                connectStartedNanos = System.nanoTime();
                 webSocket = wsClient.newWebSocket(request, new WebSocketListenerImpl(latch));
                 // Wait for onOpen or short timeout
                 boolean opened = latch.await(15, TimeUnit.SECONDS); // wait up to 15s
                 if (opened && webSocket != null) {
                     // Successfully connected; block here until connection closes (listener will
                     // handle reconnect)
-                    log("Connected to " + GATEWAY_URL + " as " + NODE_ID);
+                    log("Connected to " + GATEWAY_URL + " as " + nodeId);
 
                     // Wait until this webSocket reference becomes null (onClose sets it null) or
                     // stopped
@@ -170,19 +359,32 @@ public class NodeClient {
         }
     }
 
+    // Control messages: sent ahead of bulk traffic
     private void sendJson(Map<String, Object> map) {
         if (webSocket == null)
             return;
-        String json = gson.toJson(map);
-        boolean ok = webSocket.send(json);
-        if (!ok) {
-            log("Failed to send JSON: " + json);
-        }
+        outbound.enqueueControl(gson.toJson(map));
+    }
+
+    private void sendHttpResponse(String requestId, Map<String, Object> map) {
+        if (webSocket == null)
+            return;
+        outbound.enqueueResponse(requestId, gson.toJson(map));
+    }
+
+    private void sendTunnelError(String tunnelId, String error) {
+        if (webSocket == null)
+            return;
+        outbound.enqueueTunnelControl(tunnelId,
+                gson.toJson(Map.of("type", "https-tunnel-error", "tunnel_id", tunnelId, "error", error)));
     }
 
     // HTTP helper: performs a request and sends response back via websocket
     private void performHttpRequestAsync(Map<String, Object> data) {
+        inFlightRequests.incrementAndGet();
+        updateTrafficState();
         ioPool.submit(() -> {
+            boolean enqueued = false;
             try {
                 String method = (String) data.get("method");
                 String url = (String) data.get("url");
@@ -210,28 +412,42 @@ public class NodeClient {
                                 "type", "http-response",
                                 "request_id", requestId,
                                 "error", e.toString());
-                        sendJson(resp);
+                        sendHttpResponse(requestId, resp);
+                        requestFinished();
                     }
 
                     @Override
                     public void onResponse(Call call, Response response) throws IOException {
-                        Map<String, Object> resp = Map.of(
-                                "type", "http-response",
-                                "request_id", requestId,
-                                "status_code", response.code(),
-                                "headers", response.headers().toMultimap(),
-                                "body", response.body() != null ? response.body().string() : "");
-                        sendJson(resp);
-                        response.close();
+                        try {
+                            Map<String, Object> resp = Map.of(
+                                    "type", "http-response",
+                                    "request_id", requestId,
+                                    "status_code", response.code(),
+                                    "headers", response.headers().toMultimap(),
+                                    "body", response.body() != null ? response.body().string() : "");
+                            sendHttpResponse(requestId, resp);
+                        } finally {
+                            response.close();
+                            requestFinished();
+                        }
                     }
                 });
+                enqueued = true;
 
             } catch (Exception e) {
                 log("performHttpRequestAsync error: " + e.toString());
+            } finally {
+                if (!enqueued)
+                    requestFinished();
             }
         });
     }
 
+    private void requestFinished() {
+        inFlightRequests.decrementAndGet();
+        updateTrafficState();
+    }
+
     // Open a TCP tunnel to host:port and spawn reader that sends data back to
     // websocket
     private void openHttpsTunnel(String tunnelId, String host, int port) {
@@ -239,8 +455,10 @@ public class NodeClient {
             Socket socket = null;
             try {
                 log("Opening tunnel " + tunnelId + " -> " + host + ":" + port);
-                socket = new Socket(host, port);
+                PreconnectPool pool = preconnectPool;
+                socket = pool != null ? pool.connect(host, port) : new Socket(host, port);
                 activeTunnels.put(tunnelId, socket);
+                updateTrafficState();
 
                 // Send ready
                 sendJson(Map.of("type", "https-tunnel-ready", "tunnel_id", tunnelId));
@@ -257,11 +475,14 @@ public class NodeClient {
                             for (int i = 0; i < read; i++) {
                                 sb.append(String.format("%02x", buffer[i] & 0xff));
                             }
-                            sendJson(Map.of("type", "https-tunnel-data", "tunnel_id", tunnelId, "data", sb.toString()));
+                            outbound.enqueueTunnelData(tunnelId, gson.toJson(
+                                    Map.of("type", "https-tunnel-data", "tunnel_id", tunnelId, "data", sb.toString())));
                         }
                     } catch (IOException e) {
                         log("Tunnel reader exception for " + tunnelId + ": " + e);
-                        sendJson(Map.of("type", "https-tunnel-error", "tunnel_id", tunnelId, "error", e.toString()));
+                        sendTunnelError(tunnelId, e.toString());
+                    } catch (InterruptedException e) {
+                        // cancelled while waiting for room in the outbound queue
                     } finally {
                         // close and cleanup
                         try {
@@ -270,6 +491,8 @@ public class NodeClient {
                         }
                         activeTunnels.remove(tunnelId);
                         tunnelReaders.remove(tunnelId);
+                        outbound.closeTunnel(tunnelId);
+                        updateTrafficState();
                     }
                 });
 
@@ -277,7 +500,7 @@ public class NodeClient {
 
             } catch (Exception e) {
                 log("Failed to open tunnel " + tunnelId + ": " + e);
-                sendJson(Map.of("type", "https-tunnel-error", "tunnel_id", tunnelId, "error", e.toString()));
+                sendTunnelError(tunnelId, e.toString());
                 if (socket != null)
                     try {
                         socket.close();
@@ -303,7 +526,7 @@ public class NodeClient {
                 out.flush();
             } catch (IOException e) {
                 log("Error writing to tunnel " + tunnelId + ": " + e);
-                sendJson(Map.of("type", "https-tunnel-error", "tunnel_id", tunnelId, "error", e.toString()));
+                sendTunnelError(tunnelId, e.toString());
                 // cleanup
                 try {
                     socket.close();
@@ -313,6 +536,8 @@ public class NodeClient {
                 Future<?> f = tunnelReaders.remove(tunnelId);
                 if (f != null)
                     f.cancel(true);
+                outbound.closeTunnel(tunnelId);
+                updateTrafficState();
             }
         });
     }
@@ -350,10 +575,21 @@ public class NodeClient {
 
         @Override
         public void onOpen(WebSocket webSocket, Response response) {
-            log("WebSocket onOpen. Registering node: " + NODE_ID);
-            sendJson(Map.of("type", "register", "node_id", NODE_ID));
+            long rttMs = (System.nanoTime() - connectStartedNanos) / 1_000_000;
+            NodeClient.this.rttMs = rttMs;
+            log("WebSocket onOpen. Registering node: " + nodeId);
+            NodeClient.this.webSocket = webSocket;
+            sendJson(buildRegisterMessage());
+            if (fixturesSubscribed)
+                sendJson(Map.of("type", "fixtures-subscribe", "node_id", nodeId));
+            synchronized (NodeClient.this) {
+                lastLoadSignature = null; // new session: report load on the next tick
+            }
             if (openLatch != null)
                 openLatch.countDown();
+            if (stateStore != null) {
+                scheduler.execute(() -> stateStore.recordConnected(GATEWAY_URL, rttMs));
+            }
         }
 
         @Override
@@ -376,15 +612,39 @@ public class NodeClient {
                         String host = String.valueOf(data.get("host"));
                         int port = ((Number) data.get("port")).intValue();
                         String tunnelId = String.valueOf(data.get("tunnel_id"));
+                        if (activeTunnels.size() >= maxTunnels) {
+                            sendTunnelError(tunnelId, "node at capacity");
+                            break;
+                        }
                         openHttpsTunnel(tunnelId, host, port);
                         break;
 
+                    case "fixture-update":
+                        // either a single patch or {"fixtures": [patch, ...]}
+                        handleFixtureUpdate(data);
+                        break;
+
+                    case "pong":
+                        if (lastPingSentNanos > 0)
+                            rttMs = (System.nanoTime() - lastPingSentNanos) / 1_000_000;
+                        break;
+
                     case "https-tunnel-data":
                         String tid = String.valueOf(data.get("tunnel_id"));
                         String hex = String.valueOf(data.get("data"));
                         handleHttpsTunnelData(tid, hex);
                         break;
 
+                    case "registered":
+                        // gateway may hand back what it negotiated for this node; keep it for next start
+                        Object caps = data.get("capabilities");
+                        if (stateStore != null && caps instanceof Map) {
+                            Map<String, Object> negotiated = (Map<String, Object>) caps;
+                            // file write + rename: keep it off the websocket reader thread
+                            scheduler.execute(() -> stateStore.recordCapabilities(negotiated));
+                        }
+                        break;
+
                     // server ping/pong or other messages can be handled here
                     default:
                         log("Unhandled websocket message: " + text);
@@ -421,13 +681,133 @@ public class NodeClient {
                 }
             });
             activeTunnels.clear();
+            outbound.dropBulk();
+            updateTrafficState();
+        }
+    }
+
+    private void handleFixtureUpdate(Map<String, Object> data) {
+        FixtureUpdateListener listener = fixtureUpdateListener;
+        if (listener == null)
+            return;
+        List<FixturePatch> patches = new ArrayList<>();
+        Object batch = data.get("fixtures");
+        if (batch instanceof List) {
+            for (Object item : (List<?>) batch) {
+                if (item instanceof Map) {
+                    FixturePatch p = FixturePatch.fromMap((Map<String, Object>) item);
+                    if (p != null)
+                        patches.add(p);
+                }
+            }
+        } else {
+            FixturePatch p = FixturePatch.fromMap(data);
+            if (p != null)
+                patches.add(p);
         }
+        if (!patches.isEmpty())
+            listener.onFixturePatches(patches);
+    }
+
+    // A node that has been here before tells the gateway so it can restore
+    // routing and reputation immediately instead of treating it as new.
+    private Map<String, Object> buildRegisterMessage() {
+        Map<String, Object> msg = new HashMap<>();
+        msg.put("type", "register");
+        msg.put("node_id", nodeId);
+        msg.put("capabilities", buildCapabilities());
+        if (warmState != null && warmState.isWarm()) {
+            msg.put("resume", true);
+            msg.put("last_rtt_ms", warmState.rttMs);
+            if (!warmState.capabilities.isEmpty())
+                msg.put("negotiated_capabilities", warmState.capabilities);
+        }
+        return msg;
+    }
+
+    private Map<String, Object> buildCapabilities() {
+        Map<String, Object> caps = new HashMap<>();
+        caps.put("max_tunnels", maxTunnels);
+        caps.put("frame_modes", FRAME_MODES);
+        Object networkType = deviceState().get("network_type");
+        caps.put("network_type", networkType != null ? networkType : "unknown");
+        return caps;
+    }
+
+    private Map<String, Object> deviceState() {
+        DeviceStateProvider provider = deviceStateProvider;
+        if (provider == null)
+            return Map.of();
+        try {
+            Map<String, Object> state = provider.snapshot();
+            return state != null ? state : Map.of();
+        } catch (Exception e) {
+            log("Device state error: " + e);
+            return Map.of();
+        }
+    }
+
+    // Publishes live load so the gateway can steer work to nodes with headroom.
+    // Sent only when the picture changed, at most every LOAD_CHECK_INTERVAL_SECONDS,
+    // plus a keepalive report every LOAD_REPORT_MAX_INTERVAL_MS.
+    private void maybeReportLoad() {
+        Map<String, Object> load = new HashMap<>();
+        synchronized (this) {
+            if (webSocket == null)
+                return;
+            long now = System.currentTimeMillis();
+            int queueDepth = outbound.queuedFrames();
+            String signature = activeTunnels.size() + "/" + inFlightRequests.get() + "/" + (queueDepth > 0) + "/"
+                    + isBusy();
+            // nothing changed: idle nodes stay quiet (pings keep them alive), busy ones send a keepalive
+            if (signature.equals(lastLoadSignature)
+                    && (idleMode || now - lastLoadReportMs < LOAD_REPORT_MAX_INTERVAL_MS))
+                return;
+
+            long bytes = outbound.totalBytesSent();
+            long elapsedMs = lastLoadReportMs > 0 ? now - lastLoadReportMs : 0;
+            long throughput = elapsedMs > 0 ? (bytes - lastLoadBytes) * 1000 / elapsedMs : 0;
+
+            load.put("active_tunnels", activeTunnels.size());
+            load.put("max_tunnels", maxTunnels);
+            load.put("in_flight_requests", inFlightRequests.get());
+            load.put("queue_depth", queueDepth);
+            load.put("throughput_bytes_per_sec", throughput);
+            load.put("rtt_ms", rttMs);
+
+            lastLoadReportMs = now;
+            lastLoadBytes = bytes;
+            lastLoadSignature = signature;
+        }
+        // binder calls in the provider: outside the lock that traffic accounting also takes
+        load.putAll(deviceState());
+
+        Map<String, Object> msg = new HashMap<>();
+        msg.put("type", "load");
+        msg.put("node_id", nodeId);
+        msg.put("load", load);
+        sendJson(msg);
     }
 
     private void startPingLoop() {
         if (pingScheduler == null || pingScheduler.isShutdown()) {
             pingScheduler = Executors.newSingleThreadScheduledExecutor();
+            scheduleNextPing();
             pingScheduler.scheduleAtFixedRate(() -> {
+                try {
+                    maybeReportLoad();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }, LOAD_CHECK_INTERVAL_SECONDS, LOAD_CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    // Each ping schedules the next one so the interval can follow idle mode
+    private void scheduleNextPing() {
+        long intervalSeconds = idleMode ? (long) PING_INTERVAL_SECONDS * IDLE_PING_MULTIPLIER : PING_INTERVAL_SECONDS;
+        try {
+            pingScheduler.schedule(() -> {
                 try {
                     if (webSocket != null) {
                         log("Sending ping to ws");
@@ -435,12 +815,17 @@ public class NodeClient {
                         // webSocket.sendPing(ByteString.EMPTY);
 
                         // Option 2: Send a text-based heartbeat if server expects that
-                        sendJson(Map.of("type", "ping", "node_id", NODE_ID));
+                        lastPingSentNanos = System.nanoTime();
+                        sendJson(Map.of("type", "ping", "node_id", nodeId));
                     }
                 } catch (Exception e) {
                     e.printStackTrace();
                 }
-            }, PING_INTERVAL_MS, PING_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (!stopped)
+                    scheduleNextPing();
+            }, intervalSeconds, TimeUnit.SECONDS);
+        } catch (RejectedExecutionException ignored) {
+            // ping loop was stopped
         }
     }
 
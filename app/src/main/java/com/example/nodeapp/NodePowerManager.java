@@ -0,0 +1,153 @@
+package com.example.nodeapp;
+
+import android.content.Context;
+import android.net.wifi.WifiManager;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.PowerManager;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Holds the high-performance wifi lock and the partial wake lock only while
+// NodeClient is actually moving traffic. All state is touched on the main
+// looper, so callers can report traffic changes from any thread.
+public class NodePowerManager {
+    private static final String TAG = "NodePowerManager";
+
+    private static final long WAKE_LOCK_TIMEOUT_MS = 10 * 60 * 1000L; // safety net if we never renew
+    private static final long RENEW_INTERVAL_MS = 5 * 60 * 1000L;
+    private static final long IDLE_GRACE_MS = 30 * 1000L; // don't flap between requests
+
+    public interface Listener {
+        void onPowerModeChanged(boolean highPerformance);
+    }
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Listener listener;
+    private PowerManager.WakeLock wakeLock;
+    private WifiManager.WifiLock wifiLock;
+
+    private boolean highPerformance = false;
+    private long heldSince = 0;
+    private long totalHeldMs = 0;
+    private int busyPeriods = 0;
+    private int renewals = 0;
+
+    private final Runnable renewTask = new Runnable() {
+        @Override
+        public void run() {
+            if (!highPerformance)
+                return;
+            acquireLocks();
+            renewals++;
+            handler.postDelayed(this, RENEW_INTERVAL_MS);
+        }
+    };
+
+    private final Runnable idleTask = this::enterIdle;
+
+    public NodePowerManager(Context context, Listener listener) {
+        this.listener = listener;
+        try {
+            PowerManager pm = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+            if (pm != null) {
+                wakeLock = pm.newWakeLock(PowerManager.PARTIAL_WAKE_LOCK, "NodeApp::WakelockTag");
+                wakeLock.setReferenceCounted(false);
+            }
+            WifiManager wifiManager = (WifiManager) context.getApplicationContext()
+                    .getSystemService(Context.WIFI_SERVICE);
+            if (wifiManager != null) {
+                wifiLock = wifiManager.createWifiLock(WifiManager.WIFI_MODE_FULL_HIGH_PERF, "NodeApp::WifiLock");
+                wifiLock.setReferenceCounted(false);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Called by NodeClient whenever it goes from idle to busy or back.
+    public void onTrafficStateChanged(boolean busy) {
+        handler.post(() -> {
+            if (busy) {
+                handler.removeCallbacks(idleTask);
+                enterHighPerformance();
+            } else if (highPerformance) {
+                handler.removeCallbacks(idleTask);
+                handler.postDelayed(idleTask, IDLE_GRACE_MS);
+            }
+        });
+    }
+
+    public void shutdown() {
+        handler.removeCallbacks(idleTask);
+        handler.removeCallbacks(renewTask);
+        if (highPerformance) {
+            totalHeldMs += SystemClock.elapsedRealtime() - heldSince;
+            highPerformance = false;
+        }
+        releaseLocks();
+        Log.i(TAG, "Shutdown. " + getStats());
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        long held = totalHeldMs;
+        if (highPerformance)
+            held += SystemClock.elapsedRealtime() - heldSince;
+        stats.put("high_perf", highPerformance);
+        stats.put("locks_held_ms", held);
+        stats.put("busy_periods", busyPeriods);
+        stats.put("renewals", renewals);
+        return stats;
+    }
+
+    private void enterHighPerformance() {
+        if (highPerformance)
+            return;
+        highPerformance = true;
+        heldSince = SystemClock.elapsedRealtime();
+        busyPeriods++;
+        acquireLocks();
+        handler.postDelayed(renewTask, RENEW_INTERVAL_MS);
+        Log.i(TAG, "Traffic active, holding locks");
+        if (listener != null)
+            listener.onPowerModeChanged(true);
+    }
+
+    private void enterIdle() {
+        if (!highPerformance)
+            return;
+        highPerformance = false;
+        totalHeldMs += SystemClock.elapsedRealtime() - heldSince;
+        handler.removeCallbacks(renewTask);
+        releaseLocks();
+        Log.i(TAG, "Traffic idle, locks released. " + getStats());
+        if (listener != null)
+            listener.onPowerModeChanged(false);
+    }
+
+    private void acquireLocks() {
+        try {
+            if (wakeLock != null)
+                wakeLock.acquire(WAKE_LOCK_TIMEOUT_MS); // re-acquiring resets the timeout
+            if (wifiLock != null && !wifiLock.isHeld())
+                wifiLock.acquire();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void releaseLocks() {
+        try {
+            if (wakeLock != null && wakeLock.isHeld())
+                wakeLock.release();
+            if (wifiLock != null && wifiLock.isHeld())
+                wifiLock.release();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -8,37 +8,79 @@ import android.content.Intent;
 import android.os.Build;
 import android.os.IBinder;
 import android.util.Log;
-import android.os.PowerManager;
 import android.net.Uri;
 import android.provider.Settings;
 import androidx.annotation.Nullable;
 import androidx.core.app.NotificationCompat;
 import androidx.localbroadcastmanager.content.LocalBroadcastManager;
-import android.net.wifi.WifiManager;
 import android.content.Context;
 import android.app.AlarmManager;
 import android.app.PendingIntent;
 import android.os.SystemClock;
+import android.os.BatteryManager;
+import android.os.PowerManager;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.net.NetworkCapabilities;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public class NodeService extends Service {
 
     private static final String TAG = "NodeService";
     private static final String CHANNEL_ID = "NodeServiceChannel";
+
+    // Sent by MainActivity while fixtures are on screen
+    public static final String ACTION_SUBSCRIBE_FIXTURES = "com.example.nodeapp.SUBSCRIBE_FIXTURES";
+    public static final String ACTION_UNSUBSCRIBE_FIXTURES = "com.example.nodeapp.UNSUBSCRIBE_FIXTURES";
+    // Broadcast to MainActivity with parallel arrays (score -1 / status null = unchanged)
+    public static final String BROADCAST_FIXTURE_PATCHES = "NodeServiceFixturePatches";
+    // Upload caps for what this phone contributes to the gateway (bytes/sec, 0 = unlimited)
+    private static final long MAX_UPLINK_BYTES_PER_SEC = 0;
+    private static final long MAX_TUNNEL_BYTES_PER_SEC = 0;
+    // Keep warm TCP connections to the most requested tunnel destinations
+    private static final boolean PRECONNECT_ENABLED = true;
     private NodeClient nodeClient;
-    private PowerManager.WakeLock wakeLock;
+    private NodePowerManager powerManager;
+    private boolean clientStarted = false;
+    // last subscription command, applied when the client is created
+    private boolean fixturesWanted = false;
 
     @Override
     public void onCreate() {
+        StartupTrace.begin("service_create");
         super.onCreate();
         sendLogToActivity("Service created");
 
-        String gateway = "ws://proxy.gogoaltv.com:8010/ws";
-        // Start NodeClient here
-        nodeClient = new NodeClient(gateway, 15, 8, 30, log->sendLogToActivity(log));
-        
         // Create Notification Channel for Foreground Service
         createNotificationChannel();
-        acquireWakeLock();
+        StartupTrace.end("service_create");
+    }
+
+    private void startClient() {
+        StartupTrace.begin("node_client_start");
+        String gateway = "ws://proxy.gogoaltv.com:8010/ws";
+        // Start NodeClient here
+        // Identity survives restarts so the gateway sees the same node. It lives
+        // outside Auto Backup: a restored copy would make two phones one node.
+        NodeStateStore stateStore = new NodeStateStore(new File(getNoBackupFilesDir(), "node_state.json"));
+        nodeClient = new NodeClient(gateway, 15, 8, 30, stateStore, log->sendLogToActivity(log));
+        nodeClient.setBandwidthLimits(MAX_UPLINK_BYTES_PER_SEC, MAX_TUNNEL_BYTES_PER_SEC);
+
+        // Locks are only held while the node is carrying traffic
+        powerManager = new NodePowerManager(this, highPerf -> nodeClient.setIdleMode(!highPerf));
+        nodeClient.setTrafficListener(busy -> powerManager.onTrafficStateChanged(busy));
+        // No traffic yet: start with the idle heartbeat; the power manager switches on the first busy period
+        nodeClient.setIdleMode(true);
+        nodeClient.setDeviceStateProvider(this::deviceStateSnapshot);
+        nodeClient.setPreconnectEnabled(PRECONNECT_ENABLED);
+        nodeClient.setFixtureUpdateListener(this::broadcastFixturePatches);
+        nodeClient.setFixturesSubscribed(fixturesWanted);
+        nodeClient.start();
+        StartupTrace.end("node_client_start");
     }
 
     @Override
@@ -51,8 +93,17 @@ public class NodeService extends Service {
 
         startForeground(1, notification);
 
-        if (nodeClient != null) {
-            nodeClient.start();
+        // onStartCommand runs again for every command intent; only start the client once
+        if (!clientStarted) {
+            startClient();
+            clientStarted = true;
+        }
+
+        String action = intent != null ? intent.getAction() : null;
+        if (ACTION_SUBSCRIBE_FIXTURES.equals(action) || ACTION_UNSUBSCRIBE_FIXTURES.equals(action)) {
+            fixturesWanted = ACTION_SUBSCRIBE_FIXTURES.equals(action);
+            if (nodeClient != null)
+                nodeClient.setFixturesSubscribed(fixturesWanted);
         }
 
         return START_STICKY; // Restart if killed
@@ -61,12 +112,12 @@ public class NodeService extends Service {
     @Override
     public void onDestroy() {
         Log.i(TAG, "Service destroyed");
-        if (wakeLock != null && wakeLock.isHeld()) {
-            wakeLock.release();
-        }
         if (nodeClient != null) {
             nodeClient.stop();
         }
+        if (powerManager != null) {
+            powerManager.shutdown();
+        }
         super.onDestroy();
     }
 
@@ -94,12 +145,70 @@ public class NodeService extends Service {
                 restartServicePendingIntent);
     }
 
+    private void broadcastFixturePatches(List<FixturePatch> patches) {
+        int n = patches.size();
+        int[] ids = new int[n], homeScores = new int[n], awayScores = new int[n];
+        String[] statuses = new String[n];
+        for (int i = 0; i < n; i++) {
+            FixturePatch p = patches.get(i);
+            ids[i] = p.id;
+            homeScores[i] = p.homeScore != null ? p.homeScore : -1;
+            awayScores[i] = p.awayScore != null ? p.awayScore : -1;
+            statuses[i] = p.status;
+        }
+        Intent intent = new Intent(BROADCAST_FIXTURE_PATCHES);
+        intent.putExtra("ids", ids);
+        intent.putExtra("home_scores", homeScores);
+        intent.putExtra("away_scores", awayScores);
+        intent.putExtra("statuses", statuses);
+        LocalBroadcastManager.getInstance(this).sendBroadcast(intent);
+    }
+
     private void sendLogToActivity(String log) {
         Intent intent = new Intent("NodeServiceLog");
         intent.putExtra("log_message", log);
         LocalBroadcastManager.getInstance(this).sendBroadcast(intent);
     }
 
+    // Hints for gateway load balancing: battery, thermal state and network type
+    private Map<String, Object> deviceStateSnapshot() {
+        Map<String, Object> state = new HashMap<>();
+
+        Intent battery = registerReceiver(null, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+        if (battery != null) {
+            int level = battery.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
+            int scale = battery.getIntExtra(BatteryManager.EXTRA_SCALE, -1);
+            if (level >= 0 && scale > 0)
+                state.put("battery_pct", level * 100 / scale);
+            state.put("charging", battery.getIntExtra(BatteryManager.EXTRA_PLUGGED, 0) != 0);
+        }
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            PowerManager pm = (PowerManager) getSystemService(POWER_SERVICE);
+            if (pm != null)
+                state.put("thermal_status", pm.getCurrentThermalStatus());
+        }
+
+        String networkType = "none";
+        ConnectivityManager cm = (ConnectivityManager) getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (cm != null) {
+            NetworkCapabilities caps = cm.getNetworkCapabilities(cm.getActiveNetwork());
+            if (caps != null) {
+                if (caps.hasTransport(NetworkCapabilities.TRANSPORT_WIFI))
+                    networkType = "wifi";
+                else if (caps.hasTransport(NetworkCapabilities.TRANSPORT_ETHERNET))
+                    networkType = "ethernet";
+                else if (caps.hasTransport(NetworkCapabilities.TRANSPORT_CELLULAR))
+                    networkType = "cellular";
+                else
+                    networkType = "other";
+                state.put("metered", !caps.hasCapability(NetworkCapabilities.NET_CAPABILITY_NOT_METERED));
+            }
+        }
+        state.put("network_type", networkType);
+        return state;
+    }
+
     private void createNotificationChannel() {
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
             NotificationChannel serviceChannel = new NotificationChannel(
@@ -113,33 +222,4 @@ public class NodeService extends Service {
         }
     }
 
-    private void acquireWakeLock() {
-        try {
-            WifiManager wifiManager = (WifiManager) getApplicationContext().getSystemService(Context.WIFI_SERVICE);
-            WifiManager.WifiLock wifiLock = wifiManager.createWifiLock(WifiManager.WIFI_MODE_FULL_HIGH_PERF,
-                    "NodeApp::WifiLock");
-            wifiLock.acquire();
-
-            PowerManager pm = (PowerManager) getSystemService(POWER_SERVICE);
-            if (pm != null) {
-                if (wakeLock == null || !wakeLock.isHeld()) {
-                    wakeLock = pm.newWakeLock(PowerManager.PARTIAL_WAKE_LOCK, "NodeApp::WakelockTag");
-                    wakeLock.acquire(10 * 60 * 1000L /* 10 minutes */); // Timeout to avoid leaks
-                }
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
-
-    private void releaseWakeLock() {
-        try {
-            if (wakeLock != null && wakeLock.isHeld()) {
-                wakeLock.release();
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-    }
-
 }
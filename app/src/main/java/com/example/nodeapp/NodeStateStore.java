@@ -0,0 +1,104 @@
+package com.example.nodeapp;
+
+import android.util.Log;
+
+import com.google.gson.Gson;
+import com.google.gson.annotations.SerializedName;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+// Keeps the node's identity and a small warm-start snapshot on disk so a
+// restarted service (START_STICKY, boot, restart alarm) registers as the same
+// node instead of a brand-new one.
+public class NodeStateStore {
+    private static final String TAG = "NodeStateStore";
+
+    public static class State {
+        @SerializedName("node_id")
+        public String nodeId;
+        @SerializedName("last_gateway")
+        public String lastGateway;
+        @SerializedName("rtt_ms")
+        public long rttMs;
+        @SerializedName("capabilities")
+        public Map<String, Object> capabilities = new HashMap<>();
+        @SerializedName("saved_at")
+        public long savedAt;
+
+        // True when this state came from a previous run that reached the gateway
+        public boolean isWarm() {
+            return savedAt > 0 && lastGateway != null;
+        }
+    }
+
+    private final File file;
+    private final Gson gson = new Gson();
+    private State state;
+
+    public NodeStateStore(File file) {
+        this.file = file;
+    }
+
+    public synchronized State load() {
+        if (state != null)
+            return state;
+        if (file.exists()) {
+            try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+                state = gson.fromJson(reader, State.class);
+            } catch (Exception e) {
+                Log.w(TAG, "Could not read node state, starting fresh: " + e);
+                state = null;
+            }
+        }
+        if (state == null || state.nodeId == null || state.nodeId.isEmpty()) {
+            state = new State();
+            state.nodeId = UUID.randomUUID().toString();
+            write(state);
+        }
+        if (state.capabilities == null)
+            state.capabilities = new HashMap<>();
+        return state;
+    }
+
+    // Called once the gateway accepted us, with the handshake round trip
+    public synchronized void recordConnected(String gateway, long rttMs) {
+        State s = load();
+        s.lastGateway = gateway;
+        s.rttMs = rttMs;
+        s.savedAt = System.currentTimeMillis();
+        write(s);
+    }
+
+    public synchronized void recordCapabilities(Map<String, Object> capabilities) {
+        State s = load();
+        s.capabilities = new HashMap<>(capabilities);
+        s.savedAt = System.currentTimeMillis();
+        write(s);
+    }
+
+    // Write to a temp file then rename so a kill mid-write can't corrupt the state
+    private void write(State s) {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(tmp), StandardCharsets.UTF_8)) {
+            gson.toJson(s, writer);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not write node state: " + e);
+            return;
+        }
+        if (!tmp.renameTo(file)) {
+            Log.w(TAG, "Could not replace node state file");
+            tmp.delete();
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package com.example.nodeapp;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+// Sits between the node's producers (tunnel readers, http responses, control
+// messages) and the single gateway websocket.
+//
+// - control messages and small http responses go out first, in order
+// - tunnel data and large http responses are shared with deficit round robin
+//   so one busy tunnel can't starve the others
+// - optional global and per-tunnel token buckets cap the bytes/sec we push
+public class OutboundScheduler {
+
+    public interface Sink {
+        boolean send(String text);
+
+        // bytes already queued in the websocket, or -1 when not connected
+        long queueSize();
+    }
+
+    private static final int QUANTUM_BYTES = 16 * 1024;
+    private static final int SMALL_RESPONSE_BYTES = 16 * 1024;
+    private static final int MAX_FRAMES_PER_TUNNEL = 64;
+    private static final long SINK_HIGH_WATER_BYTES = 256 * 1024;
+    private static final long SINK_BACKOFF_MS = 10;
+    private static final long MIN_BURST_BYTES = 64 * 1024;
+
+    private static class Flow {
+        final String key;
+        final boolean tunnel;
+        final ArrayDeque<String> frames = new ArrayDeque<>();
+        final TokenBucket bucket;
+        long deficit;
+        boolean granted;
+        boolean active;
+        boolean closing;
+
+        Flow(String key, boolean tunnel, TokenBucket bucket) {
+            this.key = key;
+            this.tunnel = tunnel;
+            this.bucket = bucket;
+        }
+    }
+
+    private final Sink sink;
+    private final Object lock = new Object();
+    private final ArrayDeque<String> controlQueue = new ArrayDeque<>();
+    // flowKey -> Flow (tunnels stay here until closed, http flows until drained)
+    private final Map<String, Flow> flows = new HashMap<>();
+    // flows with pending frames, in round robin order
+    private final ArrayDeque<Flow> activeFlows = new ArrayDeque<>();
+
+    private TokenBucket globalBucket = new TokenBucket(0, 0);
+    private long perTunnelBytesPerSecond = 0;
+
+    private Thread drainThread;
+    private volatile boolean running = false;
+
+    // stats (guarded by lock)
+    private long controlBytesSent;
+    private long bulkBytesSent;
+    private long framesSent;
+    private long framesDropped;
+    private long lastRetryWaitMs;
+
+    public OutboundScheduler(Sink sink) {
+        this.sink = sink;
+    }
+
+    // 0 means unlimited. Applies to new tunnels; the global cap applies immediately.
+    public void setLimits(long globalBytesPerSecond, long perTunnelBytesPerSecond) {
+        synchronized (lock) {
+            this.globalBucket = new TokenBucket(globalBytesPerSecond,
+                    Math.max(globalBytesPerSecond / 4, MIN_BURST_BYTES));
+            this.perTunnelBytesPerSecond = perTunnelBytesPerSecond;
+            lock.notifyAll();
+        }
+    }
+
+    public void start() {
+        synchronized (lock) {
+            if (running)
+                return;
+            running = true;
+            drainThread = new Thread(this::drainLoop, "node-outbound");
+            drainThread.setDaemon(true);
+            drainThread.start();
+        }
+    }
+
+    public void stop() {
+        synchronized (lock) {
+            running = false;
+            controlQueue.clear();
+            flows.clear();
+            activeFlows.clear();
+            lock.notifyAll();
+        }
+        if (drainThread != null) {
+            drainThread.interrupt();
+            drainThread = null;
+        }
+    }
+
+    public void enqueueControl(String json) {
+        synchronized (lock) {
+            controlQueue.add(json);
+            lock.notifyAll();
+        }
+    }
+
+    // Small responses are latency sensitive and jump the queue; big ones get
+    // their own fair-share flow like a tunnel.
+    public void enqueueResponse(String requestId, String json) {
+        if (json.length() <= SMALL_RESPONSE_BYTES) {
+            enqueueControl(json);
+            return;
+        }
+        synchronized (lock) {
+            String key = "http:" + requestId;
+            Flow flow = flows.get(key);
+            if (flow == null) {
+                flow = new Flow(key, false, new TokenBucket(0, 0));
+                flow.closing = true; // forget it as soon as it drains
+                flows.put(key, flow);
+            }
+            flow.frames.add(json);
+            activate(flow);
+            lock.notifyAll();
+        }
+    }
+
+    // Blocks the tunnel reader while its queue is full so a fast upstream can't
+    // buffer unbounded data in memory.
+    public void enqueueTunnelData(String tunnelId, String json) throws InterruptedException {
+        synchronized (lock) {
+            Flow flow = tunnelFlow(tunnelId);
+            while (running && !flow.closing && flow.frames.size() >= MAX_FRAMES_PER_TUNNEL) {
+                lock.wait();
+            }
+            if (!running || flow.closing) {
+                framesDropped++;
+                return;
+            }
+            flow.frames.add(json);
+            activate(flow);
+            lock.notifyAll();
+        }
+    }
+
+    // Tunnel-scoped control (errors) must not overtake data already queued for
+    // that tunnel, otherwise it goes out with the other control messages.
+    public void enqueueTunnelControl(String tunnelId, String json) {
+        synchronized (lock) {
+            Flow flow = flows.get(tunnelId);
+            if (flow != null && !flow.frames.isEmpty()) {
+                flow.frames.add(json);
+            } else {
+                controlQueue.add(json);
+            }
+            lock.notifyAll();
+        }
+    }
+
+    // Stop accepting data for the tunnel; whatever is queued is still sent.
+    public void closeTunnel(String tunnelId) {
+        synchronized (lock) {
+            Flow flow = flows.get(tunnelId);
+            if (flow == null)
+                return;
+            flow.closing = true;
+            if (flow.frames.isEmpty())
+                flows.remove(tunnelId);
+            lock.notifyAll();
+        }
+    }
+
+    // Drop all queued bulk data, e.g. when the websocket went away.
+    public void dropBulk() {
+        synchronized (lock) {
+            for (Flow flow : flows.values()) {
+                framesDropped += flow.frames.size();
+                flow.frames.clear();
+                flow.closing = true;
+            }
+            flows.clear();
+            activeFlows.clear();
+            lock.notifyAll();
+        }
+    }
+
+    public int queuedFrames() {
+        synchronized (lock) {
+            int n = controlQueue.size();
+            for (Flow flow : activeFlows)
+                n += flow.frames.size();
+            return n;
+        }
+    }
+
+    public long totalBytesSent() {
+        synchronized (lock) {
+            return controlBytesSent + bulkBytesSent;
+        }
+    }
+
+    public Map<String, Object> snapshotStats() {
+        synchronized (lock) {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("control_bytes", controlBytesSent);
+            stats.put("bulk_bytes", bulkBytesSent);
+            stats.put("frames_sent", framesSent);
+            stats.put("frames_dropped", framesDropped);
+            stats.put("active_flows", activeFlows.size());
+            stats.put("last_wait_ms", lastRetryWaitMs);
+            stats.put("queued_frames", queuedFrames());
+            return stats;
+        }
+    }
+
+    private Flow tunnelFlow(String tunnelId) {
+        Flow flow = flows.get(tunnelId);
+        if (flow == null) {
+            flow = new Flow(tunnelId, true, new TokenBucket(perTunnelBytesPerSecond,
+                    Math.max(perTunnelBytesPerSecond / 4, MIN_BURST_BYTES)));
+            flows.put(tunnelId, flow);
+        }
+        return flow;
+    }
+
+    private void activate(Flow flow) {
+        if (!flow.active) {
+            flow.active = true;
+            activeFlows.add(flow);
+        }
+    }
+
+    private void drainLoop() {
+        while (running) {
+            String next;
+            try {
+                synchronized (lock) {
+                    if (!running)
+                        break;
+                    if (sink.queueSize() >= SINK_HIGH_WATER_BYTES) {
+                        lock.wait(SINK_BACKOFF_MS);
+                        continue;
+                    }
+                    next = controlQueue.poll();
+                    if (next != null) {
+                        globalBucket.forceConsume(next.length());
+                        controlBytesSent += next.length();
+                    } else if (activeFlows.isEmpty()) {
+                        lock.wait();
+                        continue;
+                    } else {
+                        long[] waitMs = new long[1];
+                        next = nextBulkFrame(waitMs);
+                        if (next == null) {
+                            lastRetryWaitMs = waitMs[0];
+                            if (waitMs[0] > 0)
+                                lock.wait(waitMs[0]);
+                            continue;
+                        }
+                        bulkBytesSent += next.length();
+                    }
+                }
+            } catch (InterruptedException e) {
+                break;
+            }
+
+            if (sink.send(next)) {
+                synchronized (lock) {
+                    framesSent++;
+                }
+            } else {
+                synchronized (lock) {
+                    framesDropped++;
+                }
+            }
+        }
+    }
+
+    // One step of deficit round robin. Returns null when nothing can go out
+    // right now; waitMs[0] then says how long until a token bucket refills
+    // (0 = try again immediately).
+    private String nextBulkFrame(long[] waitMs) {
+        long minWait = Long.MAX_VALUE;
+        int budget = activeFlows.size() * 2 + 1;
+
+        while (budget-- > 0 && !activeFlows.isEmpty()) {
+            Flow flow = activeFlows.peek();
+            String frame = flow.frames.peek();
+            if (frame == null) {
+                retire(flow);
+                continue;
+            }
+
+            if (!flow.granted) {
+                flow.deficit = Math.min(flow.deficit + QUANTUM_BYTES, QUANTUM_BYTES + (long) frame.length());
+                flow.granted = true;
+            }
+
+            long size = frame.length();
+            if (size > flow.deficit) {
+                rotate(flow);
+                minWait = 0;
+                continue;
+            }
+
+            // Global cap first: a tunnel's tokens are only spent once the frame can really go
+            long globalWait = globalBucket.millisUntil(size);
+            if (globalWait > 0) {
+                waitMs[0] = globalWait;
+                return null;
+            }
+
+            if (flow.tunnel && !flow.bucket.tryConsume(size)) {
+                minWait = Math.min(minWait, Math.max(1, flow.bucket.millisUntil(size)));
+                rotate(flow);
+                continue;
+            }
+            // only this thread takes from the global bucket, so the tokens checked above are still there
+            globalBucket.forceConsume(size);
+
+            flow.frames.poll();
+            flow.deficit -= size;
+            if (flow.frames.isEmpty()) {
+                retire(flow);
+            }
+            lock.notifyAll(); // wake readers blocked on a full tunnel queue
+            return frame;
+        }
+
+        waitMs[0] = minWait == Long.MAX_VALUE ? 0 : minWait;
+        return null;
+    }
+
+    private void rotate(Flow flow) {
+        activeFlows.poll();
+        flow.granted = false;
+        activeFlows.add(flow);
+    }
+
+    private void retire(Flow flow) {
+        activeFlows.remove(flow);
+        flow.active = false;
+        flow.granted = false;
+        flow.deficit = 0;
+        if (flow.closing && flows.get(flow.key) == flow) {
+            flows.remove(flow.key);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.example.nodeapp;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Keeps a few already-connected TCP sockets for the most popular tunnel
+// destinations so https-connect can skip DNS + handshake. Misses fall back to
+// a normal connect.
+public class PreconnectPool {
+    private static final String TAG = "PreconnectPool";
+
+    private static final int CONNECT_TIMEOUT_MS = 10_000;
+    private static final int TOP_DESTINATIONS = 4;
+    private static final int SOCKETS_PER_DESTINATION = 2;
+    private static final long IDLE_EXPIRY_MS = 30_000; // most servers drop idle TCP well after this
+    private static final long MAINTENANCE_INTERVAL_MS = 5_000;
+    private static final double SCORE_DECAY = 0.98; // per maintenance tick, ~3 min half-life
+    private static final double MIN_SCORE_TO_WARM = 2.0;
+    private static final double MIN_SCORE_TO_TRACK = 0.1;
+
+    private static class Destination {
+        final String host;
+        final int port;
+        double score;
+        long avgConnectMs = -1;
+        final ArrayDeque<IdleSocket> idle = new ArrayDeque<>();
+
+        Destination(String host, int port) {
+            this.host = host;
+            this.port = port;
+        }
+    }
+
+    private static class IdleSocket {
+        final Socket socket;
+        final long createdAt;
+
+        IdleSocket(Socket socket, long createdAt) {
+            this.socket = socket;
+            this.createdAt = createdAt;
+        }
+    }
+
+    // "host:port" -> Destination
+    private final Map<String, Destination> destinations = new HashMap<>();
+    private final ScheduledExecutorService maintenance = Executors.newSingleThreadScheduledExecutor();
+    private volatile boolean paused = false;
+    private volatile boolean closed = false;
+
+    // stats (guarded by this)
+    private long hits;
+    private long misses;
+    private long savedConnectMs;
+
+    public PreconnectPool() {
+        maintenance.scheduleWithFixedDelay(() -> maintain(true), MAINTENANCE_INTERVAL_MS, MAINTENANCE_INTERVAL_MS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    // Returns a warm socket when we have a healthy one, otherwise connects now.
+    public Socket connect(String host, int port) throws IOException {
+        IdleSocket warm = null;
+        long expectedConnectMs;
+        synchronized (this) {
+            Destination d = destination(host, port);
+            d.score += 1;
+            expectedConnectMs = d.avgConnectMs;
+            while (!d.idle.isEmpty()) {
+                IdleSocket candidate = d.idle.poll();
+                if (isFresh(candidate) && isHealthy(candidate.socket)) {
+                    warm = candidate;
+                    break;
+                }
+                closeQuietly(candidate.socket);
+            }
+            if (warm != null) {
+                hits++;
+                if (expectedConnectMs > 0)
+                    savedConnectMs += expectedConnectMs;
+            } else {
+                misses++;
+            }
+        }
+
+        if (warm != null) {
+            refillSoon();
+            return warm.socket;
+        }
+
+        long start = System.nanoTime();
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
+        } catch (IOException e) {
+            closeQuietly(socket);
+            throw e;
+        }
+        recordConnectTime(host, port, (System.nanoTime() - start) / 1_000_000);
+        refillSoon();
+        return socket;
+    }
+
+    // While paused (node idle) nothing is kept open and nothing is warmed
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+        if (paused) {
+            synchronized (this) {
+                for (Destination d : destinations.values())
+                    closeAll(d);
+            }
+        }
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        long total = hits + misses;
+        int idleSockets = 0;
+        for (Destination d : destinations.values())
+            idleSockets += d.idle.size();
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hit_rate", total > 0 ? (double) hits / total : 0.0);
+        stats.put("saved_connect_ms", savedConnectMs);
+        stats.put("idle_sockets", idleSockets);
+        return stats;
+    }
+
+    public void shutdown() {
+        closed = true;
+        maintenance.shutdownNow();
+        synchronized (this) {
+            for (Destination d : destinations.values())
+                closeAll(d);
+            destinations.clear();
+        }
+        Log.i(TAG, "Shutdown. " + getStats());
+    }
+
+    private Destination destination(String host, int port) {
+        String key = host + ":" + port;
+        Destination d = destinations.get(key);
+        if (d == null) {
+            d = new Destination(host, port);
+            destinations.put(key, d);
+        }
+        return d;
+    }
+
+    private synchronized void recordConnectTime(String host, int port, long ms) {
+        Destination d = destination(host, port);
+        d.avgConnectMs = d.avgConnectMs < 0 ? ms : (d.avgConnectMs * 3 + ms) / 4;
+    }
+
+    private void refillSoon() {
+        if (paused || closed)
+            return;
+        try {
+            maintenance.execute(() -> maintain(false));
+        } catch (RejectedExecutionException ignored) {
+        }
+    }
+
+    // Expire stale sockets, decay popularity and top up the hottest destinations.
+    // Connects happen outside the lock so tunnels never wait on warming.
+    private void maintain(boolean tick) {
+        List<Destination> toWarm = new ArrayList<>();
+        synchronized (this) {
+            List<Destination> ranked = new ArrayList<>();
+            for (Destination d : new ArrayList<>(destinations.values())) {
+                d.idle.removeIf(s -> {
+                    if (isFresh(s) && !s.socket.isClosed())
+                        return false;
+                    closeQuietly(s.socket);
+                    return true;
+                });
+                if (tick)
+                    d.score *= SCORE_DECAY;
+                if (d.score < MIN_SCORE_TO_TRACK && d.idle.isEmpty()) {
+                    destinations.remove(d.host + ":" + d.port);
+                    continue;
+                }
+                ranked.add(d);
+            }
+            ranked.sort((a, b) -> Double.compare(b.score, a.score));
+
+            Set<Destination> hot = new HashSet<>();
+            for (int i = 0; i < ranked.size() && i < TOP_DESTINATIONS; i++) {
+                if (ranked.get(i).score >= MIN_SCORE_TO_WARM)
+                    hot.add(ranked.get(i));
+            }
+            for (Destination d : ranked) {
+                if (!hot.contains(d) || paused) {
+                    closeAll(d);
+                } else {
+                    for (int i = d.idle.size(); i < SOCKETS_PER_DESTINATION; i++)
+                        toWarm.add(d);
+                }
+            }
+        }
+
+        for (Destination d : toWarm) {
+            if (paused || closed)
+                return;
+            Socket socket = new Socket();
+            long start = System.nanoTime();
+            try {
+                socket.connect(new InetSocketAddress(d.host, d.port), CONNECT_TIMEOUT_MS);
+            } catch (IOException e) {
+                closeQuietly(socket);
+                continue;
+            }
+            long ms = (System.nanoTime() - start) / 1_000_000;
+            synchronized (this) {
+                d.avgConnectMs = d.avgConnectMs < 0 ? ms : (d.avgConnectMs * 3 + ms) / 4;
+                if (paused || closed || d.idle.size() >= SOCKETS_PER_DESTINATION) {
+                    closeQuietly(socket);
+                } else {
+                    d.idle.add(new IdleSocket(socket, System.currentTimeMillis()));
+                }
+            }
+        }
+    }
+
+    private static boolean isFresh(IdleSocket s) {
+        return System.currentTimeMillis() - s.createdAt < IDLE_EXPIRY_MS;
+    }
+
+    // A peer that closed (or unexpectedly sent data) makes the socket useless
+    // for a fresh tunnel. A 1ms read tells us without blocking.
+    private static boolean isHealthy(Socket socket) {
+        if (socket.isClosed() || !socket.isConnected() || socket.isInputShutdown() || socket.isOutputShutdown())
+            return false;
+        try {
+            socket.setSoTimeout(1);
+            InputStream in = socket.getInputStream();
+            in.read();
+            return false; // EOF (-1) or stray data: either way don't hand it out
+        } catch (SocketTimeoutException e) {
+            try {
+                socket.setSoTimeout(0);
+            } catch (IOException ignored) {
+                return false;
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void closeAll(Destination d) {
+        for (IdleSocket s : d.idle)
+            closeQuietly(s.socket);
+        d.idle.clear();
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
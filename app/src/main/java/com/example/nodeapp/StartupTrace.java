@@ -0,0 +1,62 @@
+package com.example.nodeapp;
+
+import android.os.Process;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.util.Log;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Process-wide startup timeline. Marks and sections are stored as
+// milliseconds since the process was forked, and sections also show up in
+// systrace/Perfetto. getReport() is the debug API: MainActivity logs it once
+// the first frame is drawn (debug builds) and tests/tools can read it directly.
+public class StartupTrace {
+    private static final String TAG = "StartupTrace";
+
+    // name -> ms since process start; sections store "<name>.start" and "<name>.ms"
+    private static final Map<String, Long> entries = new LinkedHashMap<>();
+
+    private StartupTrace() {
+    }
+
+    public static long sinceProcessStart() {
+        return SystemClock.uptimeMillis() - Process.getStartUptimeMillis();
+    }
+
+    // Records the first occurrence only, so "first_frame" etc. stay meaningful
+    public static synchronized void mark(String name) {
+        if (!entries.containsKey(name))
+            entries.put(name, sinceProcessStart());
+    }
+
+    // Must be paired with end() on the same thread (android.os.Trace requirement)
+    public static void begin(String name) {
+        Trace.beginSection(name);
+        synchronized (StartupTrace.class) {
+            if (!entries.containsKey(name + ".start"))
+                entries.put(name + ".start", sinceProcessStart());
+        }
+    }
+
+    public static void end(String name) {
+        Trace.endSection();
+        synchronized (StartupTrace.class) {
+            Long start = entries.get(name + ".start");
+            if (start != null && !entries.containsKey(name + ".ms"))
+                entries.put(name + ".ms", sinceProcessStart() - start);
+        }
+    }
+
+    public static synchronized Map<String, Long> getReport() {
+        return new LinkedHashMap<>(entries);
+    }
+
+    public static void log() {
+        StringBuilder sb = new StringBuilder("Startup:");
+        for (Map.Entry<String, Long> e : getReport().entrySet())
+            sb.append(' ').append(e.getKey()).append('=').append(e.getValue());
+        Log.i(TAG, sb.toString());
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.nodeapp;
+
+import android.content.Context;
+
+import com.jakewharton.threetenabp.AndroidThreeTen;
+
+import org.threeten.bp.ZoneId;
+
+// The ThreeTen tz database is only needed to format kickoff times, which
+// happens on background threads while parsing fixtures. It is loaded there on
+// first use instead of on the main thread in MainActivity.onCreate.
+public class TimeZoneData {
+    private static volatile boolean initialized = false;
+
+    public static void ensureInitialized(Context context) {
+        if (initialized)
+            return;
+        synchronized (TimeZoneData.class) {
+            if (initialized)
+                return;
+            StartupTrace.begin("tz_init");
+            AndroidThreeTen.init(context.getApplicationContext());
+            ZoneId.systemDefault().getRules(); // ThreeTen reads the rules lazily; pay for it here
+            StartupTrace.end("tz_init");
+            initialized = true;
+        }
+    }
+}
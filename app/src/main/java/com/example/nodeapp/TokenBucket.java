@@ -0,0 +1,60 @@
+package com.example.nodeapp;
+
+// Simple token bucket used to cap byte rates. A rate of 0 means unlimited.
+public class TokenBucket {
+    private final long ratePerSecond;
+    private final long capacity;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(long ratePerSecond, long burst) {
+        this.ratePerSecond = ratePerSecond;
+        this.capacity = Math.max(burst, 1);
+        this.tokens = this.capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    public boolean isUnlimited() {
+        return ratePerSecond <= 0;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        double elapsedSeconds = (now - lastRefillNanos) / 1_000_000_000.0;
+        lastRefillNanos = now;
+        tokens = Math.min(capacity, tokens + elapsedSeconds * ratePerSecond);
+    }
+
+    // Takes n tokens if available. Messages larger than the burst size are let
+    // through once the bucket is full so they can't get stuck forever.
+    public synchronized boolean tryConsume(long n) {
+        if (isUnlimited())
+            return true;
+        refill();
+        long needed = Math.min(n, capacity);
+        if (tokens < needed)
+            return false;
+        tokens -= n;
+        return true;
+    }
+
+    // Takes n tokens unconditionally (bucket may go into debt). Used for
+    // traffic that must not be delayed but should still count against the cap.
+    public synchronized void forceConsume(long n) {
+        if (isUnlimited())
+            return;
+        refill();
+        tokens -= n;
+    }
+
+    // Milliseconds until n tokens will be available (0 if available now).
+    public synchronized long millisUntil(long n) {
+        if (isUnlimited())
+            return 0;
+        refill();
+        double missing = Math.min(n, capacity) - tokens;
+        if (missing <= 0)
+            return 0;
+        return (long) Math.ceil(missing * 1000.0 / ratePerSecond);
+    }
+}
@@ -0,0 +1,352 @@
+package com.example.nodeapp;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+import android.content.pm.Signature;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+
+// In-app update: a conditional check of the update endpoint (usually a cheap
+// 304) and a background APK download on the shared OkHttp client that resumes
+// with HTTP Range after an interruption, is rate capped, and is verified
+// before it is offered for install: size, then the SHA-256 when the endpoint
+// publishes one, otherwise the APK's signing certificate against ours.
+public class UpdateDownloader {
+    private static final String TAG = "UpdateDownloader";
+    private static final String UPDATE_URL = "https://api.gogoaltv.com/release/update";
+
+    private static final String PREFS = "app_update";
+    private static final String KEY_CHECK_ETAG = "check_etag";
+    private static final String KEY_CHECK_BODY = "check_body";
+    private static final String KEY_PART_URL = "part_url";
+    // ETag, or Last-Modified when the server sends no ETag; used as If-Range
+    private static final String KEY_PART_VALIDATOR = "part_validator";
+    // full size of the file being downloaded, from Content-Range / Content-Length
+    private static final String KEY_PART_TOTAL = "part_total";
+
+    private static final int CHUNK_BYTES = 64 * 1024;
+    // Keep the download from saturating slow mobile links (bytes/sec, 0 = unlimited)
+    private static final long MAX_DOWNLOAD_BYTES_PER_SEC = 512 * 1024;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MS = 5_000;
+
+    public static class UpdateInfo {
+        public String version;
+        public String url;
+        public String sha256; // optional in the endpoint response
+    }
+
+    public interface CheckListener {
+        void onUpdateInfo(UpdateInfo info);
+    }
+
+    public interface DownloadListener {
+        void onDownloaded(File apk);
+
+        void onFailed(Exception e);
+    }
+
+    private static UpdateDownloader instance;
+
+    private final Context appContext;
+    private final OkHttpClient client;
+    // same pool/dispatcher, no HTTP cache: an APK would be written twice and evict the fixture entries
+    private final OkHttpClient downloadClient;
+    private final SharedPreferences prefs;
+    private final File updatesDir;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private volatile boolean downloading = false;
+
+    public static synchronized UpdateDownloader get(Context context) {
+        if (instance == null)
+            instance = new UpdateDownloader(context.getApplicationContext());
+        return instance;
+    }
+
+    private UpdateDownloader(Context context) {
+        this.appContext = context;
+        this.client = HttpClients.get(context);
+        this.downloadClient = client.newBuilder().cache(null).build();
+        this.prefs = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        this.updatesDir = new File(context.getCacheDir(), "updates");
+    }
+
+    // Asks the endpoint with If-None-Match; on 304 the last response body is
+    // reused. Listener runs on the main thread and only if info is available.
+    public void checkForUpdate(CheckListener listener) {
+        executor.execute(() -> {
+            try {
+                Request.Builder builder = new Request.Builder().url(UPDATE_URL);
+                String etag = prefs.getString(KEY_CHECK_ETAG, null);
+                String cachedBody = prefs.getString(KEY_CHECK_BODY, null);
+                if (etag != null && cachedBody != null)
+                    builder.header("If-None-Match", etag);
+
+                String json;
+                try (Response response = client.newCall(builder.build()).execute()) {
+                    if (response.code() == 304) {
+                        json = cachedBody;
+                    } else if (response.isSuccessful() && response.body() != null) {
+                        json = response.body().string();
+                        prefs.edit()
+                                .putString(KEY_CHECK_ETAG, response.header("ETag"))
+                                .putString(KEY_CHECK_BODY, json)
+                                .apply();
+                    } else {
+                        return;
+                    }
+                }
+
+                JSONObject obj = new JSONObject(json);
+                UpdateInfo info = new UpdateInfo();
+                info.version = obj.getString("version");
+                info.url = obj.getString("blobUrl");
+                info.sha256 = obj.optString("sha256", null);
+                mainHandler.post(() -> listener.onUpdateInfo(info));
+            } catch (Exception e) {
+                Log.w(TAG, "Update check failed: " + e);
+            }
+        });
+    }
+
+    // Downloads in the background, retrying (and resuming) a few times.
+    // Listener runs on the main thread. Ignored while a download is running.
+    public void download(UpdateInfo info, DownloadListener listener) {
+        if (downloading)
+            return;
+        downloading = true;
+        executor.execute(() -> {
+            Exception last = null;
+            try {
+                for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+                    try {
+                        File apk = downloadOnce(info);
+                        mainHandler.post(() -> listener.onDownloaded(apk));
+                        return;
+                    } catch (ChecksumException e) {
+                        last = e; // corrupt file was deleted; a retry starts over
+                    } catch (IOException e) {
+                        last = e;
+                    }
+                    Log.w(TAG, "Download attempt " + attempt + " failed: " + last);
+                    if (attempt < MAX_ATTEMPTS)
+                        Thread.sleep(RETRY_DELAY_MS);
+                }
+            } catch (InterruptedException e) {
+                last = e;
+            } finally {
+                downloading = false;
+            }
+            Exception error = last;
+            mainHandler.post(() -> listener.onFailed(error));
+        });
+    }
+
+    private static class ChecksumException extends IOException {
+        ChecksumException(String message) {
+            super(message);
+        }
+    }
+
+    private File downloadOnce(UpdateInfo info) throws IOException, InterruptedException {
+        if (!updatesDir.exists() && !updatesDir.mkdirs())
+            throw new IOException("Cannot create " + updatesDir);
+        File apk = new File(updatesDir, "gogoal-" + info.version + ".apk");
+        File part = new File(updatesDir, "gogoal-" + info.version + ".apk.part");
+        // A finished file is reused only if it still passes verification
+        if (apk.exists()) {
+            boolean ok = hasChecksum(info) ? sha256(apk).equalsIgnoreCase(info.sha256.trim())
+                    : signedLikeInstalledApp(apk);
+            if (ok)
+                return apk;
+            apk.delete();
+        }
+
+        // A partial file is only resumable if it came from the same URL and we
+        // can tell the server which version of the blob it belongs to
+        String validator = prefs.getString(KEY_PART_VALIDATOR, null);
+        if (!info.url.equals(prefs.getString(KEY_PART_URL, null)) || validator == null)
+            part.delete();
+        long offset = part.exists() ? part.length() : 0;
+        long total = prefs.getLong(KEY_PART_TOTAL, -1);
+
+        Request.Builder builder = new Request.Builder().url(info.url);
+        if (offset > 0) {
+            builder.header("Range", "bytes=" + offset + "-");
+            builder.header("If-Range", validator); // server sends the full file if the blob changed
+        }
+
+        try (Response response = downloadClient.newCall(builder.build()).execute()) {
+            ResponseBody body = response.body();
+            if (response.code() == 416 && offset > 0) {
+                // Nothing left to send: only fine if we hold exactly the whole file
+                long remoteTotal = contentRangeTotal(response.header("Content-Range"));
+                if (remoteTotal < 0)
+                    remoteTotal = total;
+                if (remoteTotal < 0 || part.length() != remoteTotal) {
+                    discardPart(part);
+                    throw new IOException("Partial download does not match the remote file");
+                }
+                total = remoteTotal;
+            } else if (!response.isSuccessful() || body == null) {
+                throw new IOException("HTTP " + response.code());
+            } else {
+                if (response.code() == 206) {
+                    total = contentRangeTotal(response.header("Content-Range"));
+                } else {
+                    offset = 0; // server ignored the range: start over
+                    total = body.contentLength();
+                }
+                String etag = response.header("ETag");
+                prefs.edit()
+                        .putString(KEY_PART_URL, info.url)
+                        .putString(KEY_PART_VALIDATOR, etag != null ? etag : response.header("Last-Modified"))
+                        .putLong(KEY_PART_TOTAL, total)
+                        .apply();
+                writeThrottled(body.source(), part, offset);
+            }
+        }
+
+        verify(part, info, total);
+        if (!part.renameTo(apk))
+            throw new IOException("Cannot rename " + part);
+        prefs.edit().remove(KEY_PART_URL).remove(KEY_PART_VALIDATOR).remove(KEY_PART_TOTAL).apply();
+        return apk;
+    }
+
+    // The size must match what the server announced (when it did). Then the
+    // SHA-256 must match if the endpoint publishes one; without it the APK must
+    // be this app, signed with the certificate of the installed build. A file
+    // that fails is deleted.
+    private void verify(File part, UpdateInfo info, long total) throws IOException {
+        if (total >= 0 && part.length() != total) {
+            discardPart(part);
+            throw new ChecksumException("Size mismatch for " + info.url + ": " + part.length() + " != " + total);
+        }
+        if (hasChecksum(info) && !sha256(part).equalsIgnoreCase(info.sha256.trim())) {
+            discardPart(part);
+            throw new ChecksumException("Checksum mismatch for " + info.url);
+        }
+        if (!hasChecksum(info) && !signedLikeInstalledApp(part)) {
+            discardPart(part);
+            throw new ChecksumException("Signature does not match the installed app for " + info.url);
+        }
+    }
+
+    private boolean signedLikeInstalledApp(File apk) {
+        PackageManager pm = appContext.getPackageManager();
+        String ourPackage = appContext.getPackageName();
+        try {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+                PackageInfo archive = pm.getPackageArchiveInfo(apk.getPath(), PackageManager.GET_SIGNING_CERTIFICATES);
+                if (archive == null || archive.signingInfo == null || !ourPackage.equals(archive.packageName))
+                    return false;
+                if (archive.signingInfo.hasMultipleSigners()) {
+                    // every signer must be one of ours
+                    for (Signature signer : archive.signingInfo.getApkContentsSigners()) {
+                        if (!pm.hasSigningCertificate(ourPackage, signer.toByteArray(), PackageManager.CERT_INPUT_RAW_X509))
+                            return false;
+                    }
+                    return true;
+                }
+                // single signer: its lineage must include our certificate (allows key rotation)
+                for (Signature cert : archive.signingInfo.getSigningCertificateHistory()) {
+                    if (pm.hasSigningCertificate(ourPackage, cert.toByteArray(), PackageManager.CERT_INPUT_RAW_X509))
+                        return true;
+                }
+                return false;
+            }
+            PackageInfo archive = pm.getPackageArchiveInfo(apk.getPath(), PackageManager.GET_SIGNATURES);
+            PackageInfo installed = pm.getPackageInfo(ourPackage, PackageManager.GET_SIGNATURES);
+            if (archive == null || archive.signatures == null || !ourPackage.equals(archive.packageName))
+                return false;
+            return new HashSet<>(Arrays.asList(archive.signatures))
+                    .equals(new HashSet<>(Arrays.asList(installed.signatures)));
+        } catch (Exception e) {
+            Log.w(TAG, "Could not check update signature: " + e);
+            return false;
+        }
+    }
+
+    private void discardPart(File part) {
+        part.delete();
+        prefs.edit().remove(KEY_PART_URL).remove(KEY_PART_VALIDATOR).remove(KEY_PART_TOTAL).apply();
+    }
+
+    // "bytes 0-99/1234" or "bytes */1234" -> 1234; -1 if absent or "*"
+    private static long contentRangeTotal(String contentRange) {
+        if (contentRange == null)
+            return -1;
+        int slash = contentRange.lastIndexOf('/');
+        if (slash < 0)
+            return -1;
+        try {
+            return Long.parseLong(contentRange.substring(slash + 1).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static boolean hasChecksum(UpdateInfo info) {
+        return info.sha256 != null && !info.sha256.trim().isEmpty();
+    }
+
+    // Copies in CHUNK_BYTES pieces, each written to disk before the next is
+    // read, so an interruption loses at most one chunk.
+    private void writeThrottled(BufferedSource source, File part, long offset)
+            throws IOException, InterruptedException {
+        TokenBucket bucket = new TokenBucket(MAX_DOWNLOAD_BYTES_PER_SEC, CHUNK_BYTES);
+        byte[] buffer = new byte[CHUNK_BYTES];
+        try (RandomAccessFile out = new RandomAccessFile(part, "rw")) {
+            out.setLength(offset);
+            out.seek(offset);
+            int read;
+            while ((read = source.read(buffer)) != -1) {
+                while (!bucket.tryConsume(read))
+                    Thread.sleep(Math.max(1, bucket.millisUntil(read)));
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+
+    private static String sha256(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[CHUNK_BYTES];
+            int read;
+            while ((read = in.read(buffer)) != -1)
+                digest.update(buffer, 0, read);
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest.digest())
+                sb.append(String.format(Locale.ROOT, "%02x", b & 0xff));
+            return sb.toString();
+        } catch (java.security.NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+}
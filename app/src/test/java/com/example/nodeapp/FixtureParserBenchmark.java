@@ -0,0 +1,123 @@
+package com.example.nodeapp;
+
+import static org.junit.Assert.assertEquals;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+// Rough JVM timing of FixtureParser against the org.json path it replaced
+// (whole body as a String -> JSONArray -> Fixture.fromJson per record).
+// Prints ms per parse and allocated bytes where the JVM reports them; it does
+// not assert on speed so it can't flake on a busy machine.
+//
+// Ignored so the unit test run stays fast and quiet. To run it, remove the
+// @Ignore locally and use
+//   ./gradlew :app:testDebugUnitTest --tests com.example.nodeapp.FixtureParserBenchmark -i
+// (-i shows the printed timings).
+public class FixtureParserBenchmark {
+    private static final int FIXTURES = 2_000; // a busy full day
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 50;
+
+    private interface Parser {
+        List<Fixture> parse(String body) throws Exception;
+    }
+
+    @Test
+    @Ignore("benchmark, run manually (see class comment)")
+    public void streamingVersusDom() throws Exception {
+        String body = buildBody(FIXTURES);
+
+        Parser streaming = b -> FixtureParser.parse(new StringReader(b)).fixtures;
+        Parser dom = FixtureParserBenchmark::parseWithOrgJson;
+
+        // same input, same records out
+        assertEquals(FIXTURES, streaming.parse(body).size());
+        assertEquals(FIXTURES, dom.parse(body).size());
+
+        double domMs = measure("org.json DOM", dom, body);
+        double streamingMs = measure("JsonReader", streaming, body);
+        System.out.printf("FixtureParserBenchmark: %d fixtures (%d KB), speedup %.2fx%n",
+                FIXTURES, body.length() / 1024, domMs / streamingMs);
+    }
+
+    private static double measure(String name, Parser parser, String body) throws Exception {
+        for (int i = 0; i < WARMUP_ROUNDS; i++)
+            parser.parse(body);
+
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++)
+            parser.parse(body);
+        double msPerParse = (System.nanoTime() - start) / 1e6 / MEASURED_ROUNDS;
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        if (allocatedBefore >= 0)
+            System.out.printf("%-14s %8.2f ms/parse %10d KB allocated/parse%n", name, msPerParse,
+                    allocated / MEASURED_ROUNDS / 1024);
+        else
+            System.out.printf("%-14s %8.2f ms/parse%n", name, msPerParse);
+        return msPerParse;
+    }
+
+    // Per-thread allocation counter on HotSpot; -1 elsewhere
+    private static long allocatedBytes() {
+        try {
+            java.lang.management.ThreadMXBean bean = java.lang.management.ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean)
+                return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        } catch (Throwable ignored) {
+        }
+        return -1;
+    }
+
+    private static String buildBody(int count) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0)
+                sb.append(',');
+            sb.append(FixtureParserTest.fixtureJson(i + 1, "Home Team " + i, "Away Team " + i, i % 4, i % 3));
+        }
+        return sb.append(']').toString();
+    }
+
+    // The pre-streaming path, kept here only as the baseline
+    private static List<Fixture> parseWithOrgJson(String body) {
+        JSONArray jsonArray = new JSONArray(body);
+        List<Fixture> fixtures = new ArrayList<>();
+        for (int i = 0; i < jsonArray.length(); i++)
+            fixtures.add(legacyFromJson(jsonArray.getJSONObject(i)));
+        return fixtures;
+    }
+
+    private static Fixture legacyFromJson(JSONObject obj) {
+        Fixture m = new Fixture();
+        try {
+            m.matchUrl = obj.getString("match_url");
+            m.status = obj.getString("match_status_display");
+            m.matchTime = obj.getString("match_time");
+            m.id = obj.getInt("id");
+
+            JSONArray teams = obj.getJSONArray("match_teams");
+            JSONObject home = teams.getJSONObject(0);
+            JSONObject away = teams.getJSONObject(1);
+
+            m.homeName = home.getJSONObject("team").getString("name");
+            m.homeLogo = home.getJSONObject("team").getString("logo");
+            m.homeScore = home.getInt("goals");
+
+            m.awayName = away.getJSONObject("team").getString("name");
+            m.awayLogo = away.getJSONObject("team").getString("logo");
+            m.awayScore = away.getInt("goals");
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return m;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.nodeapp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+public class FixtureParserTest {
+
+    static String fixtureJson(int id, String home, String away, Object homeGoals, Object awayGoals) {
+        return "{\"id\":" + id + ",\"match_url\":\"m-" + id + "\",\"match_status_display\":\"NS\","
+                + "\"match_time\":\"2026-10-19T18:00:00Z\",\"league\":{\"name\":\"Skipped\",\"rounds\":[1,2,3]},"
+                + "\"match_teams\":["
+                + "{\"goals\":" + homeGoals + ",\"team\":{\"name\":\"" + home + "\",\"logo\":\"h.png\",\"extra\":1}},"
+                + "{\"goals\":" + awayGoals + ",\"team\":{\"name\":\"" + away + "\",\"logo\":\"a.png\"}}]}";
+    }
+
+    private static FixtureParser.Result parse(String json) throws IOException {
+        return FixtureParser.parse(new StringReader(json));
+    }
+
+    @Test
+    public void parsesFieldsAndSkipsUnknownOnes() throws IOException {
+        FixtureParser.Result result = parse("[" + fixtureJson(7, "Home", "Away", 2, "\"1\"") + "]");
+
+        assertTrue(result.errors.isEmpty());
+        assertEquals(1, result.fixtures.size());
+        Fixture f = result.fixtures.get(0);
+        assertEquals(7, f.id);
+        assertEquals("m-7", f.matchUrl);
+        assertEquals("NS", f.status);
+        assertEquals("2026-10-19T18:00:00Z", f.matchTime);
+        assertEquals("Home", f.homeName);
+        assertEquals("h.png", f.homeLogo);
+        assertEquals(2, f.homeScore);
+        assertEquals("Away", f.awayName);
+        assertEquals(1, f.awayScore);
+    }
+
+    @Test
+    public void nullGoalsBeforeKickoffAreZero() throws IOException {
+        FixtureParser.Result result = parse("[" + fixtureJson(1, "A", "B", "null", "null") + "]");
+
+        assertEquals(1, result.fixtures.size());
+        assertEquals(0, result.fixtures.get(0).homeScore);
+        assertEquals(0, result.fixtures.get(0).awayScore);
+    }
+
+    @Test
+    public void badRecordsAreReportedAndTheRestStillParse() throws IOException {
+        String json = "["
+                + fixtureJson(1, "A", "B", 0, 0) + ","
+                + "{\"match_time\":\"2026-10-19T18:00:00Z\",\"match_teams\":[]},"
+                + "42,"
+                + "{\"id\":\"x9\",\"match_teams\":{\"not\":\"a list\"}},"
+                + "{\"id\":5,\"match_time\":\"2026-10-19T20:00:00Z\",\"match_teams\":[{\"team\":{\"name\":\"Solo\"}}]},"
+                + fixtureJson(2, "C", "D", 3, 1)
+                + "]";
+        FixtureParser.Result result = parse(json);
+
+        assertEquals(2, result.fixtures.size());
+        assertEquals(1, result.fixtures.get(0).id);
+        assertEquals(2, result.fixtures.get(1).id);
+
+        assertEquals(4, result.errors.size());
+        assertTrue(result.errors.get(0), result.errors.get(0).startsWith("fixture #1: "));
+        assertTrue(result.errors.get(0).contains("missing id"));
+        assertTrue(result.errors.get(0).contains("expected 2 teams, got 0"));
+        assertEquals("fixture #2: not an object", result.errors.get(1));
+        assertTrue(result.errors.get(2).contains("missing id"));
+        assertTrue(result.errors.get(2).contains("missing match_time"));
+        assertTrue(result.errors.get(3), result.errors.get(3).startsWith("fixture #4 (id 5): "));
+        assertTrue(result.errors.get(3).contains("expected 2 teams, got 1"));
+    }
+
+    @Test
+    public void wrongTypesDoNotDesyncTheStream() throws IOException {
+        String json = "[{\"id\":3,\"match_url\":{\"nested\":[1,2]},\"match_status_display\":[\"FT\"],"
+                + "\"match_time\":\"2026-10-19T18:00:00Z\",\"match_teams\":["
+                + "{\"goals\":\"n/a\",\"team\":{\"name\":\"A\",\"logo\":null}},"
+                + "{\"goals\":1.5,\"team\":{\"name\":\"B\"}}]},"
+                + fixtureJson(4, "C", "D", 0, 0) + "]";
+        FixtureParser.Result result = parse(json);
+
+        assertEquals(2, result.fixtures.size());
+        Fixture f = result.fixtures.get(0);
+        assertNull(f.matchUrl);
+        assertNull(f.status);
+        assertNull(f.homeLogo);
+        assertEquals(0, f.homeScore);
+        assertEquals(0, f.awayScore);
+        assertEquals(4, result.fixtures.get(1).id);
+    }
+}